@@ -0,0 +1,60 @@
+#!/bin/sh
+# Mede o tempo até a primeira requisição bem-sucedida (time-to-first-successful-request)
+# para GET /api/clientes/{id} e para /clientes.xhtml.
+#
+# Uso:
+#   scripts/startup-benchmark.sh padrao  [id]   # JAR executável padrão (./mvnw package)
+#   scripts/startup-benchmark.sh startup [id]   # AOT + AppCDS + lazy init (./mvnw -Pstartup package)
+#
+# O banco configurado em application.properties deve estar acessível e conter o cliente com o id informado (padrão: 1).
+
+MODO=${1:-padrao}
+ID=${2:-1}
+PORTA=${PORTA:-8080}
+JAR=target/alex-viana-projeto-0.0.1-SNAPSHOT.jar
+
+cd "$(dirname "$0")/.." || exit 1
+
+case "$MODO" in
+    padrao)
+        set -- java -Dserver.port="$PORTA" -jar "$JAR"
+        ;;
+    startup)
+        set -- java -XX:SharedArchiveFile=target/cds/app-cds.jsa -Dspring.aot.enabled=true \
+            -Dspring.profiles.active=startup -Dserver.port="$PORTA" \
+            -cp "target/alex-viana-projeto-0.0.1-SNAPSHOT-cds.jar:target/cds/lib/*" \
+            com.alexviana.alexvianaprojeto.AlexVianaProjetoApplication
+        ;;
+    *)
+        echo "Modo desconhecido: $MODO (use 'padrao' ou 'startup')" >&2
+        exit 1
+        ;;
+esac
+
+agora_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# Aguarda até a URL responder 200 e imprime os milissegundos decorridos desde o início do processo
+aguardar() {
+    while [ "$(curl -s -o /dev/null -w '%{http_code}' "$1")" != "200" ]; do
+        if ! kill -0 "$PID" 2>/dev/null; then
+            echo "A aplicação encerrou antes de responder $1" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    echo $(($(agora_ms) - INICIO))
+}
+
+INICIO=$(agora_ms)
+"$@" > target/startup-benchmark.log 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null' EXIT
+
+API_MS=$(aguardar "http://localhost:$PORTA/api/clientes/$ID")
+JSF_MS=$(aguardar "http://localhost:$PORTA/clientes.xhtml")
+
+echo "Modo: $MODO"
+echo "Primeira resposta 200 de /api/clientes/$ID: ${API_MS} ms"
+echo "Primeira resposta 200 de /clientes.xhtml:   ${JSF_MS} ms"
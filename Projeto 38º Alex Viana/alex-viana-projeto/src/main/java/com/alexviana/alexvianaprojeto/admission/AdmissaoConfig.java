@@ -0,0 +1,33 @@
+package com.alexviana.alexvianaprojeto.admission;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * @author Alex Viana
+ * Configuração do controle de admissão por classe de operação, ativa com {@code app.admission.enabled=true}.
+ * O filtro roda antes de todos os outros, para rejeitar a requisição excedente antes de qualquer trabalho.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+@EnableConfigurationProperties(AdmissaoProperties.class)
+public class AdmissaoConfig {
+
+    @Bean
+    public ControleAdmissao controleAdmissao(AdmissaoProperties properties) {
+        return new ControleAdmissao(properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissaoFilter> admissaoFilter(ControleAdmissao controleAdmissao, AdmissaoProperties properties) {
+        FilterRegistrationBean<AdmissaoFilter> registration = new FilterRegistrationBean<>(
+                new AdmissaoFilter(controleAdmissao, properties));
+        registration.addUrlPatterns("/api/clientes", "/api/clientes/*", "*.xhtml");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
\ No newline at end of file
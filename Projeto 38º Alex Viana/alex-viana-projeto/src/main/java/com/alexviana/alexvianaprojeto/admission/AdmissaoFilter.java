@@ -0,0 +1,51 @@
+package com.alexviana.alexvianaprojeto.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * @author Alex Viana
+ * Filtro de controle de admissão: cada requisição ocupa uma vaga do limite da sua {@link ClasseOperacao} enquanto
+ * é processada. Sem vaga, responde 503 com Retry-After imediatamente, em vez de prender uma thread do Tomcat
+ * esperando por uma conexão do pool.
+ */
+public class AdmissaoFilter extends OncePerRequestFilter {
+
+    private final ControleAdmissao controle;
+    private final String retryAfter;
+
+    public AdmissaoFilter(ControleAdmissao controle, AdmissaoProperties properties) {
+        this.controle = controle;
+        this.retryAfter = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ClasseOperacao classe = controle.classificar(request);
+        if (classe == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        LimiteAdaptativo limite = controle.limite(classe);
+        if (!limite.tentarAdquirir()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return;
+        }
+        long inicio = System.nanoTime();
+        boolean falhou = true;
+        try {
+            filterChain.doFilter(request, response);
+            falhou = response.getStatus() >= 500;
+        } finally {
+            limite.liberar(System.nanoTime() - inicio, falhou);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.alexviana.alexvianaprojeto.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @author Alex Viana
+ * Propriedades do controle de admissão ({@code app.admission.*}).
+ * Exemplo:
+ * <pre>
+ * app.admission.enabled=true
+ * app.admission.varredura.maximo=4
+ * app.admission.leitura-pontual.latencia-inicial=30ms
+ * </pre>
+ * Os padrões mantêm as varreduras abaixo do tamanho padrão do pool do Hikari (10), para que sempre sobrem
+ * conexões para leituras pontuais e escritas.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissaoProperties {
+
+    /**
+     * Ativa o controle de admissão em /api/clientes e nas páginas JSF.
+     */
+    private boolean enabled;
+
+    /**
+     * False mantém cada limite fixo no valor inicial (sem ajuste pelo gradiente de latência).
+     */
+    private boolean adaptativo = true;
+
+    /**
+     * Valor do cabeçalho Retry-After das respostas 503.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Limite leituraPontual = new Limite(40, 8, 200, Duration.ofMillis(50));
+    private Limite varredura = new Limite(4, 1, 8, Duration.ofMillis(500));
+    private Limite escrita = new Limite(16, 2, 64, Duration.ofMillis(200));
+    private Limite postbackJsf = new Limite(16, 2, 64, Duration.ofMillis(300));
+
+    /**
+     * @param classe A classe de operação.
+     * @return O limite configurado para a classe.
+     */
+    public Limite limite(ClasseOperacao classe) {
+        return switch (classe) {
+            case LEITURA_PONTUAL -> leituraPontual;
+            case VARREDURA -> varredura;
+            case ESCRITA -> escrita;
+            case POSTBACK_JSF -> postbackJsf;
+        };
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limite {
+        private int inicial;
+        private int minimo;
+        private int maximo;
+        /**
+         * Latência de base usada até a classe ter respostas suficientes; depois a base é a latência observada.
+         */
+        private Duration latenciaInicial;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.alexviana.alexvianaprojeto.admission;
+
+/**
+ * @author Alex Viana
+ * Classes de operação com limites de concorrência independentes (bulkheads): uma varredura lenta não consome
+ * a capacidade das leituras pontuais, e vice-versa.
+ */
+public enum ClasseOperacao {
+
+    /**
+     * GET /api/clientes/{id} e GET /api/clientes/cpf/{cpf}.
+     */
+    LEITURA_PONTUAL,
+
+    /**
+     * GET /api/clientes, GET /api/clientes/filtrar, GET /api/clientes/estatisticas/* (no sharding, consultam todos os
+     * shards) e a abertura (GET) das páginas JSF, que carregam a lista completa.
+     */
+    VARREDURA,
+
+    /**
+     * POST, PUT e DELETE em /api/clientes.
+     */
+    ESCRITA,
+
+    /**
+     * POST em páginas .xhtml (postbacks JSF: cadastrar, alterar, excluir, buscar).
+     */
+    POSTBACK_JSF
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.alexviana.alexvianaprojeto.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * @author Alex Viana
+ * Classifica as requisições em {@link ClasseOperacao} e mantém um {@link LimiteAdaptativo} por classe.
+ * Usado pelo {@link AdmissaoFilter}.
+ */
+public class ControleAdmissao {
+
+    private static final String BASE_CLIENTES = "/api/clientes";
+    // CSS, JS e imagens do JSF/PrimeFaces: uma única página dispara vários em paralelo
+    private static final String RECURSOS_FACES = "/jakarta.faces.resource/";
+    private static final String RECURSOS_FACES_LEGADO = "/javax.faces.resource/";
+
+    private final Map<ClasseOperacao, LimiteAdaptativo> limites = new EnumMap<>(ClasseOperacao.class);
+
+    public ControleAdmissao(AdmissaoProperties properties) {
+        for (ClasseOperacao classe : ClasseOperacao.values()) {
+            AdmissaoProperties.Limite limite = properties.limite(classe);
+            limites.put(classe, new LimiteAdaptativo(limite.getInicial(), limite.getMinimo(), limite.getMaximo(),
+                    limite.getLatenciaInicial().toNanos(), properties.isAdaptativo()));
+        }
+    }
+
+    /**
+     * @param request A requisição HTTP.
+     * @return A classe da operação, ou {@code null} se a requisição não passa pelo controle de admissão.
+     */
+    public ClasseOperacao classificar(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        String metodo = request.getMethod();
+        if (caminho.startsWith(RECURSOS_FACES) || caminho.startsWith(RECURSOS_FACES_LEGADO)) {
+            return null;
+        }
+        if (caminho.endsWith(".xhtml")) {
+            return "POST".equals(metodo) ? ClasseOperacao.POSTBACK_JSF : ClasseOperacao.VARREDURA;
+        }
+        if (!caminho.equals(BASE_CLIENTES) && !caminho.startsWith(BASE_CLIENTES + "/")) {
+            return null;
+        }
+        if (!"GET".equals(metodo) && !"HEAD".equals(metodo)) {
+            return ClasseOperacao.ESCRITA;
+        }
+        String resto = caminho.substring(BASE_CLIENTES.length());
+        // As estatísticas por região e por estado consultam todos os shards, como a listagem
+        if (resto.isEmpty() || resto.equals("/") || resto.startsWith("/filtrar") || resto.startsWith("/estatisticas/")) {
+            return ClasseOperacao.VARREDURA;
+        }
+        return ClasseOperacao.LEITURA_PONTUAL;
+    }
+
+    /**
+     * @param classe A classe de operação.
+     * @return O limite da classe.
+     */
+    public LimiteAdaptativo limite(ClasseOperacao classe) {
+        return limites.get(classe);
+    }
+
+    /**
+     * @return A situação do limite de cada classe, incluindo as rejeições.
+     */
+    public Map<ClasseOperacao, LimiteAdaptativo.Estatisticas> estatisticas() {
+        Map<ClasseOperacao, LimiteAdaptativo.Estatisticas> estatisticas = new EnumMap<>(ClasseOperacao.class);
+        limites.forEach((classe, limite) -> estatisticas.put(classe, limite.estatisticas()));
+        return estatisticas;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.alexviana.alexvianaprojeto.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Alex Viana
+ * Limite de requisições simultâneas de uma {@link ClasseOperacao}, ajustado pelo gradiente entre a latência recente
+ * e a latência de base da própria classe (não por uma latência absoluta, que puniria classes lentas por natureza):
+ * <ul>
+ *     <li>A latência recente é uma média móvel rápida; a de base, uma média lenta que parte da latência inicial
+ *     configurada e acompanha a latência normal da classe (e volta a cair logo quando a recente fica bem abaixo dela).</li>
+ *     <li>Gradiente = {@value #TOLERANCIA} × base / recente, entre {@value #GRADIENTE_MINIMO} e 1: enquanto a latência recente
+ *     não passa de {@value #TOLERANCIA}× a base, o gradiente é 1 e o limite cresce (com o limite em uso) √limite por ajuste;
+ *     acima disso o limite encolhe na proporção do atraso.</li>
+ *     <li>Erro 5xx: o limite é multiplicado por {@value #FATOR_REDUCAO}, no máximo uma vez por latência de base.</li>
+ * </ul>
+ * Cada ajuste é suavizado ({@value #SUAVIZACAO} do novo valor). Requisições acima do limite não esperam:
+ * {@link #tentarAdquirir()} devolve false na hora.
+ */
+public class LimiteAdaptativo {
+
+    static final double FATOR_REDUCAO = 0.9;
+    static final double TOLERANCIA = 2.0;
+    static final double GRADIENTE_MINIMO = 0.5;
+    static final double SUAVIZACAO = 0.2;
+    // Pesos das médias móveis: a recente reage em poucas respostas, a de base em centenas
+    private static final double PESO_RECENTE = 0.1;
+    private static final double PESO_BASE = 0.002;
+
+    /**
+     * Situação atual do limite, exposta no endpoint administrativo.
+     */
+    public record Estatisticas(int limite, int emAndamento, int minimo, int maximo, double latenciaBaseMs,
+                               double latenciaRecenteMs, long admitidas, long rejeitadas, long reducoes) {
+    }
+
+    private final int minimo;
+    private final int maximo;
+    private final boolean adaptativo;
+
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final LongAdder admitidas = new LongAdder();
+    private final LongAdder rejeitadas = new LongAdder();
+    private final LongAdder reducoes = new LongAdder();
+
+    private volatile double limite;
+    // Protegidos por this
+    private double latenciaBase;
+    private double latenciaRecente;
+    private long ultimaReducao;
+
+    /**
+     * @param inicial Limite inicial.
+     * @param minimo Limite mínimo (nunca reduz abaixo disso).
+     * @param maximo Limite máximo (nunca cresce acima disso).
+     * @param latenciaInicialNanos Latência de base até haver respostas suficientes para medi-la.
+     * @param adaptativo False mantém o limite fixo no valor inicial.
+     */
+    public LimiteAdaptativo(int inicial, int minimo, int maximo, long latenciaInicialNanos, boolean adaptativo) {
+        if (minimo < 1 || minimo > maximo || inicial < minimo || inicial > maximo) {
+            throw new IllegalArgumentException("Limites inválidos: inicial=" + inicial + ", mínimo=" + minimo + ", máximo=" + maximo);
+        }
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.adaptativo = adaptativo;
+        this.limite = inicial;
+        this.latenciaBase = latenciaInicialNanos;
+        this.latenciaRecente = latenciaInicialNanos;
+        this.ultimaReducao = System.nanoTime() - latenciaInicialNanos;
+    }
+
+    /**
+     * Reserva uma vaga, sem esperar.
+     * @return true se a requisição foi admitida (chame {@link #liberar(long, boolean)} ao terminar), false se o limite foi atingido.
+     */
+    public boolean tentarAdquirir() {
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= (int) limite) {
+                rejeitadas.increment();
+                return false;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                admitidas.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga e ajusta o limite pelo gradiente da latência.
+     * @param latenciaNanos A duração da requisição.
+     * @param sobrecarga true se a requisição falhou por erro do servidor (5xx ou exceção).
+     */
+    public void liberar(long latenciaNanos, boolean sobrecarga) {
+        int emVoo = emAndamento.getAndDecrement();
+        if (!adaptativo) {
+            return;
+        }
+        synchronized (this) {
+            if (sobrecarga) {
+                long agora = System.nanoTime();
+                if (agora - ultimaReducao >= latenciaBase) {
+                    limite = Math.max(minimo, limite * FATOR_REDUCAO);
+                    ultimaReducao = agora;
+                    reducoes.increment();
+                }
+                return;
+            }
+            latenciaRecente += PESO_RECENTE * (latenciaNanos - latenciaRecente);
+            latenciaBase += PESO_BASE * (latenciaNanos - latenciaBase);
+            if (latenciaBase > TOLERANCIA * latenciaRecente) {
+                // A carga aliviou (ou a base inicial era alta demais): a base desce mais rápido que a média lenta
+                latenciaBase = Math.max(latenciaRecente, latenciaBase * 0.95);
+            }
+            double gradiente = Math.max(GRADIENTE_MINIMO, Math.min(1.0, TOLERANCIA * latenciaBase / latenciaRecente));
+            double novo = limite * gradiente;
+            // Só cresce quando o limite está de fato em uso; sem isso ele subiria até o máximo em períodos ociosos
+            if (emVoo * 2 >= limite) {
+                novo += Math.sqrt(limite);
+            }
+            double suavizado = Math.max(minimo, Math.min(maximo, limite + SUAVIZACAO * (novo - limite)));
+            if ((int) suavizado < (int) limite) {
+                reducoes.increment();
+            }
+            limite = suavizado;
+        }
+    }
+
+    public Estatisticas estatisticas() {
+        double base;
+        double recente;
+        synchronized (this) {
+            base = latenciaBase;
+            recente = latenciaRecente;
+        }
+        return new Estatisticas((int) limite, emAndamento.get(), minimo, maximo, base / 1_000_000, recente / 1_000_000,
+                admitidas.sum(), rejeitadas.sum(), reducoes.sum());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,324 @@
+package com.alexviana.alexvianaprojeto.cache;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.service.ClienteAlteracaoListener;
+import com.alexviana.alexvianaprojeto.service.generic.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author Alex Viana
+ * Cache das respostas JSON de {@code GET /api/clientes/{id}} e {@code GET /api/clientes/cpf/{cpf}}, já serializadas
+ * (e comprimidas em gzip quando compensa). Um acerto é uma consulta em hash e uma cópia do buffer para a saída do servlet,
+ * sem Jackson nem acessores da entidade. As respostas levam Content-Length e ETag, e {@code If-None-Match} recebe 304.
+ * <p>
+ * As entradas ficam por ID (o CPF aponta para o ID) e são removidas após o commit de cada alteração ou exclusão
+ * ({@link ClienteAlteracaoListener}). Cada alteração avança a geração do cache; uma resposta carregada antes disso
+ * é entregue a quem a pediu, mas não é guardada (a leitura pode ter visto a versão anterior do cliente).
+ * Também não é guardada a resposta que aproveitou a leitura de outra thread ({@link SingleFlight}): essa leitura pode
+ * ter começado antes da última invalidação, mesmo que a geração tenha sido lida depois. O cache é notificado depois
+ * do snapshot ({@link ClienteAlteracaoListener#ORDEM_CACHE}), então uma falta logo após a invalidação já lê o snapshot atualizado.
+ * Ativo com {@code app.response-cache.enabled=true}. Pensado para um único nó de aplicação, como o snapshot.
+ */
+@Component
+@ConditionalOnProperty(name = "app.response-cache.enabled", havingValue = "true")
+@Order(ClienteAlteracaoListener.ORDEM_CACHE)
+public class ClienteRespostaCache implements ClienteAlteracaoListener {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper objectMapper;
+    private final int maximoEntradas;
+    private final long gzipMinimo;
+
+    private final ConcurrentHashMap<Long, RespostaCliente> porId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> idPorCpf = new ConcurrentHashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder naoModificados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+
+    /**
+     * Carrega o cliente do serviço quando a resposta não está no cache.
+     */
+    @FunctionalInterface
+    public interface Carregador {
+        Optional<Cliente> carregar() throws DAOException;
+    }
+
+    /**
+     * Situação do cache, exposta no endpoint administrativo.
+     * @param entradas Respostas guardadas.
+     * @param bytes Bytes dos corpos guardados (JSON e gzip).
+     * @param acertos Leituras atendidas pelo cache.
+     * @param faltas Leituras que foram ao serviço.
+     * @param naoModificados Respostas 304 (ETag igual à do cliente HTTP).
+     * @param descartados Respostas não guardadas porque houve uma alteração durante a carga
+     *                    ou porque vieram da leitura de outra thread.
+     */
+    public record Estatisticas(int entradas, long bytes, long acertos, long faltas, long naoModificados, long descartados) {
+    }
+
+    @Autowired
+    public ClienteRespostaCache(ObjectMapper objectMapper,
+                                @Value("${app.response-cache.max-entradas:50000}") int maximoEntradas,
+                                @Value("${app.response-cache.gzip-minimo:512B}") DataSize gzipMinimo) {
+        this.objectMapper = objectMapper;
+        this.maximoEntradas = maximoEntradas;
+        this.gzipMinimo = gzipMinimo.toBytes();
+    }
+
+    /**
+     * Indica se a requisição aceita a resposta em JSON, a única guardada no cache.
+     * Quem prefere CBOR ou Smile (ou envia um Accept inválido) segue pela negociação de conteúdo do Spring.
+     */
+    public boolean atende(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        double json = -1;
+        double coringa = -1;
+        double binario = -1;
+        try {
+            for (MediaType tipo : MediaType.parseMediaTypes(accept)) {
+                double q = tipo.getQualityValue();
+                if (tipo.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) {
+                    json = Math.max(json, q);
+                } else if (tipo.isWildcardSubtype() && tipo.includes(MediaType.APPLICATION_JSON)) {
+                    coringa = Math.max(coringa, q);
+                } else if (tipo.equalsTypeAndSubtype(CBOR) || tipo.equalsTypeAndSubtype(SMILE)) {
+                    binario = Math.max(binario, q);
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        // Um tipo explícito vence o coringa na negociação do Spring, então CBOR/Smile listados sem JSON explícito ficam de fora
+        return json > 0 ? json >= binario : binario < 0 && coringa > 0;
+    }
+
+    /**
+     * @param id O ID do cliente.
+     * @param carregador Busca o cliente no serviço em caso de falta.
+     * @return A resposta do cliente, ou vazio se ele não existir.
+     * @throws DAOException Se o carregamento ou a serialização falharem.
+     */
+    public Optional<RespostaCliente> porId(long id, Carregador carregador) throws DAOException {
+        RespostaCliente resposta = porId.get(id);
+        if (resposta != null) {
+            acertos.increment();
+            return Optional.of(resposta);
+        }
+        return carregar(carregador);
+    }
+
+    /**
+     * @param cpf O CPF do cliente.
+     * @param carregador Busca o cliente no serviço em caso de falta.
+     * @return A resposta do cliente, ou vazio se ele não existir.
+     * @throws DAOException Se o carregamento ou a serialização falharem.
+     */
+    public Optional<RespostaCliente> porCpf(long cpf, Carregador carregador) throws DAOException {
+        Long id = idPorCpf.get(cpf);
+        RespostaCliente resposta = id == null ? null : porId.get(id);
+        if (resposta != null && Objects.equals(resposta.cpf(), cpf)) {
+            acertos.increment();
+            return Optional.of(resposta);
+        }
+        return carregar(carregador);
+    }
+
+    /**
+     * Escreve a resposta direto na saída do servlet: 304 se a ETag coincidir com {@code If-None-Match},
+     * senão 200 com o corpo em gzip (se o cliente HTTP aceitar e houver) ou em JSON.
+     */
+    public void escrever(RespostaCliente resposta, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean gzip = resposta.gzip() != null && aceitaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? resposta.etagGzip() : resposta.etag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        if (coincide(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            naoModificados.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] corpo = gzip ? resposta.gzip() : resposta.json();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(corpo.length);
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(corpo);
+        }
+    }
+
+    @Override
+    public void aposSalvar(Cliente cliente) {
+        invalidar(cliente.getId());
+    }
+
+    @Override
+    public void aposExcluir(Cliente cliente) {
+        invalidar(cliente.getId());
+    }
+
+    /**
+     * Remove todas as respostas guardadas.
+     */
+    public void limpar() {
+        geracao.incrementAndGet();
+        porId.clear();
+        idPorCpf.clear();
+    }
+
+    public Estatisticas estatisticas() {
+        long bytes = 0;
+        for (RespostaCliente resposta : porId.values()) {
+            bytes += resposta.bytes();
+        }
+        return new Estatisticas(porId.size(), bytes, acertos.sum(), faltas.sum(), naoModificados.sum(), descartados.sum());
+    }
+
+    private Optional<RespostaCliente> carregar(Carregador carregador) throws DAOException {
+        faltas.increment();
+        long versao = geracao.get();
+        SingleFlight.limparResultadoCompartilhado();
+        Optional<Cliente> cliente = carregador.carregar();
+        boolean compartilhado = SingleFlight.recebeuResultadoCompartilhado();
+        if (cliente.isEmpty()) {
+            return Optional.empty();
+        }
+        RespostaCliente resposta = serializar(cliente.get(), versao);
+        if (compartilhado) {
+            descartados.increment();
+        } else {
+            guardar(resposta);
+        }
+        return Optional.of(resposta);
+    }
+
+    private void guardar(RespostaCliente resposta) {
+        if (geracao.get() != resposta.versao()) {
+            descartados.increment();
+            return;
+        }
+        porId.put(resposta.id(), resposta);
+        if (resposta.cpf() != null) {
+            idPorCpf.put(resposta.cpf(), resposta.id());
+        }
+        // Uma invalidação entre a conferência acima e o put não encontrou a entrada; ela é desfeita aqui
+        if (geracao.get() != resposta.versao()) {
+            descartados.increment();
+            remover(resposta.id(), resposta);
+            return;
+        }
+        limitarTamanho();
+    }
+
+    private void invalidar(Long id) {
+        geracao.incrementAndGet();
+        if (id != null) {
+            RespostaCliente resposta = porId.get(id);
+            if (resposta != null) {
+                remover(id, resposta);
+            }
+        }
+    }
+
+    private void remover(long id, RespostaCliente resposta) {
+        if (porId.remove(id, resposta) && resposta.cpf() != null) {
+            idPorCpf.remove(resposta.cpf(), id);
+        }
+    }
+
+    // Sem ordem de acesso para não pôr lock nos acertos: o excedente sai na ordem de iteração do mapa (praticamente aleatória)
+    private void limitarTamanho() {
+        Iterator<RespostaCliente> respostas = porId.values().iterator();
+        while (porId.size() > maximoEntradas && respostas.hasNext()) {
+            RespostaCliente resposta = respostas.next();
+            remover(resposta.id(), resposta);
+        }
+    }
+
+    private RespostaCliente serializar(Cliente cliente, long versao) throws DAOException {
+        try {
+            // O mesmo ObjectMapper do conversor JSON do Spring: o corpo é idêntico ao da resposta sem cache
+            byte[] json = objectMapper.writeValueAsBytes(cliente);
+            CRC32 crc = new CRC32();
+            crc.update(json);
+            String etag = Long.toHexString(cliente.getId()) + "-" + Long.toHexString(crc.getValue());
+            byte[] gzip = json.length >= gzipMinimo ? comprimir(json) : null;
+            return new RespostaCliente(cliente.getId(), cliente.getCpf(), versao, json,
+                    gzip != null && gzip.length < json.length ? gzip : null, "\"" + etag + "\"", "\"" + etag + "-gz\"");
+        } catch (JsonProcessingException e) {
+            throw new DAOException("Erro ao serializar o cliente com ID " + cliente.getId(), e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // não ocorre em memória
+        }
+        return saida.toByteArray();
+    }
+
+    private static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // If-None-Match usa comparação fraca: W/"x" coincide com "x"
+    private static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidata : ifNoneMatch.split(",")) {
+            String valor = candidata.trim();
+            if (valor.equals("*") || (valor.startsWith("W/") ? valor.substring(2) : valor).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.alexviana.alexvianaprojeto.cache;
+
+/**
+ * @author Alex Viana
+ * Resposta JSON de um cliente já serializada, pronta para ser copiada na saída do servlet.
+ * @param id O ID do cliente.
+ * @param cpf O CPF do cliente (para conferir as buscas por CPF).
+ * @param versao A geração do cache em que a resposta foi montada.
+ * @param json O corpo em JSON (UTF-8).
+ * @param gzip O mesmo corpo comprimido em gzip, ou {@code null} se for pequeno demais para compensar.
+ * @param etag A ETag forte do corpo JSON, já entre aspas.
+ * @param etagGzip A ETag do corpo em gzip (outra representação, outra ETag).
+ */
+public record RespostaCliente(long id, Long cpf, long versao, byte[] json, byte[] gzip, String etag, String etagGzip) {
+
+    /**
+     * @return Bytes ocupados pelos corpos guardados.
+     */
+    public long bytes() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.alexviana.alexvianaprojeto.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * @author Alex Viana
+ * Conversores binários (CBOR e Smile) para a API REST, escolhidos por negociação de conteúdo:
+ * o cliente envia {@code Accept: application/cbor} ou {@code Accept: application/x-jackson-smile} para receber
+ * o formato binário, e o mesmo {@code Content-Type} para enviar corpos nesse formato. Sem esses cabeçalhos, a API continua em JSON.
+ * Os conversores usam o mesmo {@link Jackson2ObjectMapperBuilder} configurado pelo Spring Boot para o JSON
+ * (o builder é um bean prototype, então cada conversor recebe uma instância própria).
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+}
\ No newline at end of file
@@ -5,6 +5,7 @@ package com.alexviana.alexvianaprojeto.config;
 import jakarta.faces.webapp.FacesServlet;
 import jakarta.servlet.ServletContext;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.ServletContextInitializer; // <-- ESTE IMPORT É CRUCIAL
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +15,15 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class FacesConfig {
 
+    // Ordem de inicialização do FacesServlet. O padrão (1) inicializa JSF/PrimeFaces junto com a aplicação;
+    // o perfil "startup" usa -1 para adiar essa inicialização até a primeira requisição .xhtml.
+    @Value("${app.faces.load-on-startup:1}")
+    private int loadOnStartup;
+
+    // Estágio do projeto JSF (Development gera logs detalhados, Production reduz o custo por requisição)
+    @Value("${app.faces.project-stage:Development}")
+    private String projectStage;
+
     // Bean para registrar o FacesServlet
     @Bean
     public ServletRegistrationBean<FacesServlet> facesServletRegistration() {
@@ -22,7 +32,7 @@ public class FacesConfig {
                 new FacesServlet(), "*.xhtml"); // Mapeia o FacesServlet para todas as requisições .xhtml
         
         // Configura a ordem de inicialização do servlet
-        registration.setLoadOnStartup(1); // Garante que o FacesServlet seja inicializado na inicialização da aplicação
+        registration.setLoadOnStartup(loadOnStartup); // Valor >= 0 inicializa o FacesServlet na subida da aplicação
 
         return registration;
     }
@@ -34,8 +44,8 @@ public class FacesConfig {
         return new ServletContextInitializer() {
             @Override
             public void onStartup(ServletContext servletContext) {
-                // Configura o projeto como "PROJECT_STAGE" de desenvolvimento para logs detalhados
-                servletContext.setInitParameter("jakarta.faces.PROJECT_STAGE", "Development");
+                // Configura o "PROJECT_STAGE" do JSF (Development por padrão, para logs detalhados)
+                servletContext.setInitParameter("jakarta.faces.PROJECT_STAGE", projectStage);
                 // Opcional: Desabilita a verificação de estado para evitar alguns problemas em certos setups
                 // servletContext.setInitParameter("jakarta.faces.STATE_SAVING_METHOD", "client");
             }
@@ -0,0 +1,22 @@
+package com.alexviana.alexvianaprojeto.config;
+
+import com.alexviana.alexvianaprojeto.jfr.JfrDataSourcePostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Alex Viana
+ * Configuração dos eventos do Java Flight Recorder ligados à infraestrutura (pool de conexões).
+ * A gravação contínua fica no {@link com.alexviana.alexvianaprojeto.jfr.GravadorJfr}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class JfrConfig {
+
+    // Estático para ser criado antes dos DataSources, sem depender da inicialização desta classe
+    @Bean
+    public static JfrDataSourcePostProcessor jfrDataSourcePostProcessor() {
+        return new JfrDataSourcePostProcessor();
+    }
+}
\ No newline at end of file
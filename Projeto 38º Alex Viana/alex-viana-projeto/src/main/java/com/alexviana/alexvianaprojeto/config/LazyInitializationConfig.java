@@ -0,0 +1,41 @@
+package com.alexviana.alexvianaprojeto.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * @author Alex Viana
+ * Define quais beans continuam sendo criados na subida quando a inicialização preguiçosa está ativa (perfil "startup").
+ * A preguiça só vale para beans sem trabalho próprio na subida: quem tem tarefa agendada ({@code @Scheduled}) ou
+ * reage a eventos da aplicação (ex: a carga do snapshot e a gravação do JFR no {@code ApplicationReadyEvent}) é criado
+ * na subida, como no perfil padrão, em vez de ficar para a primeira requisição.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter trabalhoNaSubidaExcludeFilter() {
+        return (nome, definicao, tipo) -> temTrabalhoNaSubida(tipo);
+    }
+
+    static boolean temTrabalhoNaSubida(Class<?> tipo) {
+        if (ApplicationListener.class.isAssignableFrom(tipo)) {
+            return true;
+        }
+        for (Method metodo : ReflectionUtils.getUniqueDeclaredMethods(tipo, ReflectionUtils.USER_DECLARED_METHODS)) {
+            if (AnnotatedElementUtils.hasAnnotation(metodo, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(metodo, EventListener.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.alexviana.alexvianaprojeto.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @author Alex Viana
+ * Habilita as tarefas agendadas ({@code @Scheduled}) da aplicação.
+ * No perfil "startup" os beans com tarefas agendadas são criados na subida ({@link LazyInitializationConfig}).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.admission.ClasseOperacao;
+import com.alexviana.alexvianaprojeto.admission.ControleAdmissao;
+import com.alexviana.alexvianaprojeto.admission.LimiteAdaptativo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * @author Alex Viana
+ * Endpoint administrativo do controle de admissão (disponível apenas com {@code app.admission.enabled=true}).
+ */
+@RestController
+@RequestMapping("/api/admin/admissao")
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+public class AdmissaoAdminController {
+
+    private final ControleAdmissao controleAdmissao;
+
+    @Autowired
+    public AdmissaoAdminController(ControleAdmissao controleAdmissao) {
+        this.controleAdmissao = controleAdmissao;
+    }
+
+    /**
+     * Mostra, por classe de operação, o limite atual, as requisições em andamento, as admitidas e as rejeitadas (503).
+     * GET /api/admin/admissao
+     * @return ResponseEntity com as estatísticas e status 200 OK.
+     */
+    @GetMapping
+    public ResponseEntity<Map<ClasseOperacao, LimiteAdaptativo.Estatisticas>> estatisticas() {
+        return new ResponseEntity<>(controleAdmissao.estatisticas(), HttpStatus.OK);
+    }
+}
\ No newline at end of file
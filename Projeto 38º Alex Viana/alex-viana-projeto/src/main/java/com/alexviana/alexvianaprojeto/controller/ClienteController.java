@@ -1,16 +1,24 @@
 package com.alexviana.alexvianaprojeto.controller;
 
+import com.alexviana.alexvianaprojeto.cache.ClienteRespostaCache;
+import com.alexviana.alexvianaprojeto.cache.RespostaCliente;
 import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.domain.EstatisticaRegiao;
 import com.alexviana.alexvianaprojeto.exceptions.DAOException;
 import com.alexviana.alexvianaprojeto.service.IClienteService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid; // Anotação para ativar a validação do Bean Validation
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus; // Enum para códigos de status HTTP
 import org.springframework.http.ResponseEntity; // Classe para encapsular a resposta HTTP
 import org.springframework.web.bind.annotation.*; // Anotações para mapeamento de requisições web
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -24,14 +32,17 @@ import java.util.Optional;
 public class ClienteController {
 
     private final IClienteService clienteService;
+    private final ClienteRespostaCache respostaCache; // null com app.response-cache.enabled=false
 
     /**
      * Construtor para injeção de dependência do serviço de cliente.
      * @param clienteService O serviço de cliente injetado pelo Spring.
+     * @param respostaCache O cache de respostas pré-serializadas das buscas por ID e CPF, se ativo.
      */
     @Autowired
-    public ClienteController(IClienteService clienteService) {
+    public ClienteController(IClienteService clienteService, ObjectProvider<ClienteRespostaCache> respostaCache) {
         this.clienteService = clienteService;
+        this.respostaCache = respostaCache.getIfAvailable();
     }
 
     /**
@@ -76,12 +87,18 @@ public class ClienteController {
     /**
      * Endpoint para buscar um cliente pelo ID.
      * GET /api/clientes/{id}
+     * Com o cache de respostas ativo, respostas em JSON são copiadas direto do cache (com ETag; 304 para If-None-Match).
      * @param id ID do cliente a ser buscado.
      * @return ResponseEntity com o cliente encontrado e status 200 OK, ou 404 Not Found.
+     * @throws IOException Se a escrita da resposta do cache falhar (ex: o cliente HTTP fechou a conexão).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Cliente> buscarClientePorId(@PathVariable Long id) {
+    public ResponseEntity<Cliente> buscarClientePorId(@PathVariable Long id, HttpServletRequest request,
+                                                      HttpServletResponse response) throws IOException {
         try {
+            if (respostaCache != null && respostaCache.atende(request)) {
+                return escreverDoCache(respostaCache.porId(id, () -> clienteService.consultar(id)), request, response);
+            }
             // O serviço agora retorna Optional, facilitando o tratamento de "não encontrado".
             Optional<Cliente> cliente = clienteService.consultar(id);
             return cliente.map(value -> new ResponseEntity<>(value, HttpStatus.OK)) // Se presente, retorna 200 OK
@@ -95,12 +112,18 @@ public class ClienteController {
     /**
      * Endpoint para buscar um cliente pelo CPF.
      * GET /api/clientes/cpf/{cpf}
+     * Usa o cache de respostas da mesma forma que a busca por ID.
      * @param cpf CPF do cliente a ser buscado.
      * @return ResponseEntity com o cliente encontrado e status 200 OK, ou 404 Not Found.
+     * @throws IOException Se a escrita da resposta do cache falhar (ex: o cliente HTTP fechou a conexão).
      */
     @GetMapping("/cpf/{cpf}")
-    public ResponseEntity<Cliente> buscarClientePorCpf(@PathVariable Long cpf) {
+    public ResponseEntity<Cliente> buscarClientePorCpf(@PathVariable Long cpf, HttpServletRequest request,
+                                                       HttpServletResponse response) throws IOException {
         try {
+            if (respostaCache != null && respostaCache.atende(request)) {
+                return escreverDoCache(respostaCache.porCpf(cpf, () -> clienteService.buscarPorCPF(cpf)), request, response);
+            }
             Optional<Cliente> cliente = clienteService.buscarPorCPF(cpf);
             return cliente.map(value -> new ResponseEntity<>(value, HttpStatus.OK)) // Se presente, retorna 200 OK
                           .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND)); // Se não, retorna 404 Not Found
@@ -122,6 +145,36 @@ public class ClienteController {
         return new ResponseEntity<>(clientes, HttpStatus.OK); // Retorna 200 OK com a lista filtrada (pode ser vazia)
     }
 
+    /**
+     * Endpoint para consultar a quantidade de clientes por estado e cidade.
+     * GET /api/clientes/estatisticas/regioes
+     * @return ResponseEntity com as regiões e suas quantidades e status 200 OK, ou 500 em caso de erro.
+     */
+    @GetMapping("/estatisticas/regioes")
+    public ResponseEntity<List<EstatisticaRegiao>> contarClientesPorRegiao() {
+        try {
+            return new ResponseEntity<>(clienteService.contarPorRegiao(), HttpStatus.OK);
+        } catch (DAOException e) {
+            System.err.println("Erro de DAO ao contar clientes por região: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Endpoint para consultar a quantidade de clientes por estado.
+     * GET /api/clientes/estatisticas/estados
+     * @return ResponseEntity com o mapa estado -> quantidade e status 200 OK, ou 500 em caso de erro.
+     */
+    @GetMapping("/estatisticas/estados")
+    public ResponseEntity<Map<String, Long>> contarClientesPorEstado() {
+        try {
+            return new ResponseEntity<>(clienteService.contarPorEstado(), HttpStatus.OK);
+        } catch (DAOException e) {
+            System.err.println("Erro de DAO ao contar clientes por estado: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Endpoint para atualizar um cliente existente.
      * Recebe o ID na URL e os dados atualizados no corpo da requisição.
@@ -175,4 +228,15 @@ public class ClienteController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR); // Retorna 500 Internal Server Error
         }
     }
+
+    // Escreve a resposta pré-serializada na saída do servlet; o retorno null indica ao Spring que a resposta já foi tratada.
+    // Uma falha na escrita sobe para o Spring, como nas respostas escritas pelos conversores de mensagem.
+    private ResponseEntity<Cliente> escreverDoCache(Optional<RespostaCliente> resposta, HttpServletRequest request,
+                                                    HttpServletResponse response) throws IOException {
+        if (resposta.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        respostaCache.escrever(resposta.get(), request, response);
+        return null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.service.ClienteService;
+import com.alexviana.alexvianaprojeto.service.generic.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * @author Alex Viana
+ * Endpoint administrativo da coalescência de leituras simultâneas de clientes ({@code app.coalescing.enabled}).
+ */
+@RestController
+@RequestMapping("/api/admin/coalescencia")
+public class CoalescenciaAdminController {
+
+    private final ClienteService clienteService;
+
+    @Autowired
+    public CoalescenciaAdminController(ClienteService clienteService) {
+        this.clienteService = clienteService;
+    }
+
+    /**
+     * Mostra quantas leituras foram ao banco, quantas aproveitaram uma consulta em andamento e quantas expiraram.
+     * GET /api/admin/coalescencia
+     * @return ResponseEntity com os contadores e status 200 OK.
+     */
+    @GetMapping
+    public ResponseEntity<SingleFlight.Estatisticas> estatisticas() {
+        return new ResponseEntity<>(clienteService.estatisticasCoalescencia(), HttpStatus.OK);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.service.EstatisticaRegiaoService;
+import com.alexviana.alexvianaprojeto.service.ManutencaoEstatisticaRegiao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Alex Viana
+ * Endpoints administrativos da contagem de clientes por região.
+ */
+@RestController
+@RequestMapping("/api/admin/estatisticas")
+public class EstatisticaAdminController {
+
+    private final ManutencaoEstatisticaRegiao manutencao;
+
+    @Autowired
+    public EstatisticaAdminController(ManutencaoEstatisticaRegiao manutencao) {
+        this.manutencao = manutencao;
+    }
+
+    /**
+     * Compara a contagem registrada com a contagem real dos clientes, em cada shard.
+     * GET /api/admin/estatisticas/verificar
+     * @return ResponseEntity com as divergências por shard e status 200 OK, ou 500 em caso de erro.
+     */
+    @GetMapping("/verificar")
+    public ResponseEntity<Map<Integer, List<EstatisticaRegiaoService.Divergencia>>> verificar() {
+        try {
+            return new ResponseEntity<>(manutencao.verificar(), HttpStatus.OK);
+        } catch (DAOException e) {
+            System.err.println("Erro ao verificar a contagem de clientes por região: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Recria a contagem a partir dos clientes, em cada shard.
+     * POST /api/admin/estatisticas/reconstruir
+     * @return ResponseEntity com a quantidade de regiões por shard e status 200 OK, ou 500 em caso de erro.
+     */
+    @PostMapping("/reconstruir")
+    public ResponseEntity<Map<Integer, Integer>> reconstruir() {
+        try {
+            return new ResponseEntity<>(manutencao.reconstruir(), HttpStatus.OK);
+        } catch (DAOException e) {
+            System.err.println("Erro ao reconstruir a contagem de clientes por região: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.jfr.GravadorJfr;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+/**
+ * @author Alex Viana
+ * Endpoint administrativo da gravação JFR contínua (disponível enquanto {@code app.jfr.enabled} não for false).
+ * O dump expõe nomes de classes, threads e trechos de dados da aplicação, por isso exige o cabeçalho {@code X-Jfr-Token}
+ * igual a {@code app.jfr.dump-token}; sem token configurado, o dump sob demanda fica desativado (403).
+ */
+@RestController
+@RequestMapping("/api/admin/jfr")
+@ConditionalOnProperty(name = "app.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class JfrAdminController {
+
+    private final GravadorJfr gravadorJfr;
+    private final byte[] token;
+
+    @Autowired
+    public JfrAdminController(GravadorJfr gravadorJfr, @Value("${app.jfr.dump-token:}") String token) {
+        this.gravadorJfr = gravadorJfr;
+        this.token = token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Salva o buffer circular do JFR em arquivo e o devolve para download (abrir no JDK Mission Control ou com "jfr print").
+     * POST /api/admin/jfr/dump (cabeçalho X-Jfr-Token)
+     * @param tokenInformado O valor do cabeçalho X-Jfr-Token.
+     * @return ResponseEntity com o arquivo .jfr e status 200 OK, 403 Forbidden se o token não conferir (ou não estiver
+     * configurado), ou 500 Internal Server Error se o dump falhar.
+     */
+    @PostMapping("/dump")
+    public ResponseEntity<Resource> dump(@RequestHeader(value = "X-Jfr-Token", required = false) String tokenInformado) {
+        if (token == null || tokenInformado == null
+                || !MessageDigest.isEqual(token, tokenInformado.getBytes(StandardCharsets.UTF_8))) { // comparação em tempo constante
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        try {
+            Path arquivo = gravadorJfr.dump("manual");
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentDisposition(ContentDisposition.attachment().filename(arquivo.getFileName().toString()).build());
+            return new ResponseEntity<>(new FileSystemResource(arquivo), headers, HttpStatus.OK);
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar a gravação JFR: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.cache.ClienteRespostaCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * @author Alex Viana
+ * Endpoints administrativos do cache de respostas de clientes (disponíveis apenas com {@code app.response-cache.enabled=true}).
+ */
+@RestController
+@RequestMapping("/api/admin/cache-respostas")
+@ConditionalOnProperty(name = "app.response-cache.enabled", havingValue = "true")
+public class RespostaCacheAdminController {
+
+    private final ClienteRespostaCache respostaCache;
+
+    @Autowired
+    public RespostaCacheAdminController(ClienteRespostaCache respostaCache) {
+        this.respostaCache = respostaCache;
+    }
+
+    /**
+     * Mostra as entradas, os bytes guardados, os acertos, as faltas e as respostas 304.
+     * GET /api/admin/cache-respostas
+     * @return ResponseEntity com as estatísticas e status 200 OK.
+     */
+    @GetMapping
+    public ResponseEntity<ClienteRespostaCache.Estatisticas> estatisticas() {
+        return new ResponseEntity<>(respostaCache.estatisticas(), HttpStatus.OK);
+    }
+
+    /**
+     * Remove todas as respostas guardadas (ex: após alterar clientes direto no banco).
+     * POST /api/admin/cache-respostas/limpar
+     * @return ResponseEntity com as estatísticas após a limpeza e status 200 OK.
+     */
+    @PostMapping("/limpar")
+    public ResponseEntity<ClienteRespostaCache.Estatisticas> limpar() {
+        respostaCache.limpar();
+        return new ResponseEntity<>(respostaCache.estatisticas(), HttpStatus.OK);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.sharding.ShardMap;
+import com.alexviana.alexvianaprojeto.sharding.ShardRebalancer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Alex Viana
+ * Endpoints administrativos do sharding de clientes (disponíveis apenas com {@code app.sharding.enabled=true}).
+ */
+@RestController
+@RequestMapping("/api/admin/shards")
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardAdminController {
+
+    private final ShardMap shardMap;
+    private final ShardRebalancer shardRebalancer;
+
+    @Autowired
+    public ShardAdminController(ShardMap shardMap, ShardRebalancer shardRebalancer) {
+        this.shardMap = shardMap;
+        this.shardRebalancer = shardRebalancer;
+    }
+
+    /**
+     * Mostra a quantidade de buckets atribuída a cada shard.
+     * GET /api/admin/shards
+     * @return ResponseEntity com a distribuição (shard -> buckets) e status 200 OK.
+     */
+    @GetMapping
+    public ResponseEntity<Map<Integer, Integer>> distribuicao() {
+        int[] bucketsPorShard = shardMap.bucketsPorShard();
+        Map<Integer, Integer> distribuicao = new LinkedHashMap<>();
+        for (int shard = 0; shard < bucketsPorShard.length; shard++) {
+            distribuicao.put(shard, bucketsPorShard[shard]);
+        }
+        return new ResponseEntity<>(distribuicao, HttpStatus.OK);
+    }
+
+    /**
+     * Redistribui os buckets entre todos os shards configurados (ex: após adicionar shards).
+     * POST /api/admin/shards/rebalancear
+     * @return ResponseEntity com os movimentos realizados e status 200 OK, ou 500 em caso de erro.
+     */
+    @PostMapping("/rebalancear")
+    public ResponseEntity<List<ShardRebalancer.MovimentoBucket>> rebalancear() {
+        try {
+            return new ResponseEntity<>(shardRebalancer.rebalancear(), HttpStatus.OK);
+        } catch (DAOException e) {
+            System.err.println("Erro ao rebalancear os shards: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Move um bucket para outro shard.
+     * POST /api/admin/shards/buckets/{bucket}/mover?destino={shard}
+     * @param bucket O bucket a ser movido.
+     * @param destino O shard de destino.
+     * @return ResponseEntity com o movimento realizado e status 200 OK, ou 400 em caso de erro.
+     */
+    @PostMapping("/buckets/{bucket}/mover")
+    public ResponseEntity<ShardRebalancer.MovimentoBucket> moverBucket(@PathVariable int bucket, @RequestParam("destino") int destino) {
+        try {
+            return new ResponseEntity<>(shardRebalancer.moverBucket(bucket, destino), HttpStatus.OK);
+        } catch (DAOException e) {
+            System.err.println("Erro ao mover o bucket " + bucket + ": " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+}
\ No newline at end of file
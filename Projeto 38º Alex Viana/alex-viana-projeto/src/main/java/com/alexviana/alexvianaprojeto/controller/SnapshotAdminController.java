@@ -0,0 +1,49 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.snapshot.ClienteSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * @author Alex Viana
+ * Endpoints administrativos do snapshot de clientes em memória (disponíveis apenas com {@code app.snapshot.enabled=true}).
+ */
+@RestController
+@RequestMapping("/api/admin/snapshot")
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+public class SnapshotAdminController {
+
+    private final ClienteSnapshot clienteSnapshot;
+
+    @Autowired
+    public SnapshotAdminController(ClienteSnapshot clienteSnapshot) {
+        this.clienteSnapshot = clienteSnapshot;
+    }
+
+    /**
+     * Mostra a memória por cliente do snapshot comparada à estimativa da entidade JPA.
+     * GET /api/admin/snapshot
+     * @return ResponseEntity com as estatísticas e status 200 OK.
+     */
+    @GetMapping
+    public ResponseEntity<ClienteSnapshot.Estatisticas> estatisticas() {
+        return new ResponseEntity<>(clienteSnapshot.estatisticas(), HttpStatus.OK);
+    }
+
+    /**
+     * Recarrega o snapshot a partir do banco (as leituras vão ao banco durante a recarga).
+     * POST /api/admin/snapshot/recarregar
+     * @return ResponseEntity com as estatísticas após a recarga e status 200 OK, ou 409 se outra carga estiver em andamento.
+     */
+    @PostMapping("/recarregar")
+    public ResponseEntity<ClienteSnapshot.Estatisticas> recarregar() {
+        if (!clienteSnapshot.recarregar()) {
+            System.err.println("Recarga do snapshot ignorada: outra carga está em andamento.");
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(clienteSnapshot.estatisticas(), HttpStatus.OK);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.service.TravasCpf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * @author Alex Viana
+ * Endpoint administrativo das travas por CPF usadas no cadastro de clientes.
+ */
+@RestController
+@RequestMapping("/api/admin/travas-cpf")
+public class TravasCpfAdminController {
+
+    private final TravasCpf travasCpf;
+
+    @Autowired
+    public TravasCpfAdminController(TravasCpf travasCpf) {
+        this.travasCpf = travasCpf;
+    }
+
+    /**
+     * Mostra as travas em uso, as aquisições, as esperas e os cadastros recusados por tempo limite.
+     * GET /api/admin/travas-cpf
+     * @return ResponseEntity com as estatísticas e status 200 OK.
+     */
+    @GetMapping
+    public ResponseEntity<TravasCpf.Estatisticas> estatisticas() {
+        return new ResponseEntity<>(travasCpf.estatisticas(), HttpStatus.OK);
+    }
+}
\ No newline at end of file
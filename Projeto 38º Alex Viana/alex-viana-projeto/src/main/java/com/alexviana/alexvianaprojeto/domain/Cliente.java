@@ -1,17 +1,18 @@
 package com.alexviana.alexvianaprojeto.domain;
 
+import com.alexviana.alexvianaprojeto.sharding.ShardIdGenerator;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.NamedQuery;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data; // Ensure this is here
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @Entity
 @Table(name = "TB_CLIENTE")
@@ -19,12 +20,17 @@ import lombok.NoArgsConstructor;
 @Data // This *should* generate getId(), setId(), getCpf(), setCpf()
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true) // toBuilder() copia todos os campos (usado nas leituras coalescidas do ClienteService)
 public class Cliente implements Persistente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_seq")
-    @SequenceGenerator(name = "cliente_seq", sequenceName = "sq_cliente", initialValue = 1, allocationSize = 1)
+    @GeneratedValue(generator = "cliente_seq")
+    // Mesma sequência sq_cliente de antes; com sharding ativo, o gerador embute o bucket do CPF no ID (ver ShardKey)
+    @GenericGenerator(name = "cliente_seq", type = ShardIdGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "sq_cliente"),
+            @Parameter(name = "initial_value", value = "1"),
+            @Parameter(name = "increment_size", value = "1")
+    })
     private Long id; // This field corresponds to getId() and setId()
 
     @Column(name = "NOME", nullable = false, length = 50)
@@ -33,6 +39,26 @@ public class Cliente implements Persistente {
     @Column(name = "CPF", nullable = false, unique = true)
     private Long cpf; // This field corresponds to getCpf() and setCpf()
 
+    @Column(name = "EMAIL", length = 100)
+    private String email;
+
+    @Column(name = "TEL")
+    private Long tel;
+
+    @Column(name = "ENDERECO", length = 100) // "END" é palavra reservada em SQL
+    private String end;
+
+    @Column(name = "NUMERO")
+    private Integer numero;
+
+    // Cidade e estado são normalizados pelo ClienteService (sem espaços nas pontas; estado em maiúsculas)
+    // e contados por região em TB_ESTATISTICA_REGIAO
+    @Column(name = "CIDADE", length = 50)
+    private String cidade;
+
+    @Column(name = "ESTADO", length = 50)
+    private String estado;
+
     // ... (other fields)
 
     // IF @Data DOESN'T WORK OR Persistente requires abstract methods:
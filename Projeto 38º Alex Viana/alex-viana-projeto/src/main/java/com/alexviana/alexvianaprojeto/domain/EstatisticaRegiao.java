@@ -0,0 +1,57 @@
+package com.alexviana.alexvianaprojeto.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * @author Alex Viana
+ * Quantidade de clientes por estado e cidade, mantida de forma incremental pelo {@code ClienteService}
+ * na mesma transação de cada cadastro, alteração ou exclusão. Evita o GROUP BY sobre toda a TB_CLIENTE
+ * nas consultas por região.
+ * Cliente sem estado ou sem cidade é contado com o valor vazio ({@code ""}), pois a chave não aceita nulos.
+ */
+@Entity
+@Table(name = "TB_ESTATISTICA_REGIAO")
+@IdClass(EstatisticaRegiao.Regiao.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticaRegiao {
+
+    @Id
+    @Column(name = "ESTADO", length = 50, nullable = false)
+    private String estado;
+
+    @Id
+    @Column(name = "CIDADE", length = 50, nullable = false)
+    private String cidade;
+
+    @Column(name = "QUANTIDADE", nullable = false)
+    private long quantidade;
+
+    /**
+     * Chave composta (estado, cidade).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Regiao implements Serializable {
+        private String estado;
+        private String cidade;
+
+        /**
+         * @return A região de um cliente, com os valores ausentes trocados por {@code ""}.
+         */
+        public static Regiao de(String estado, String cidade) {
+            return new Regiao(estado == null ? "" : estado, cidade == null ? "" : cidade);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.alexviana.alexvianaprojeto.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * @author Alex Viana
+ * Evento do Java Flight Recorder com o tempo de espera por uma conexão do pool (HikariCP).
+ * O Hikari informa a espera depois que a conexão é obtida, por isso ela é gravada no campo {@code espera}
+ * (e não na duração do evento). Emitido pelo {@link JfrMetricsTrackerFactory}.
+ */
+@Name("com.alexviana.EsperaConexao")
+@Label("Espera por Conexão JDBC")
+@Category({"Alex Viana", "JDBC"})
+@StackTrace(false)
+public class EsperaConexaoEvent extends Event {
+
+    @Label("Pool")
+    String pool;
+
+    @Label("Espera")
+    @Timespan(Timespan.NANOSECONDS)
+    long espera;
+
+    @Label("Timeout")
+    boolean timeout;
+
+    @Label("Conexões Ativas")
+    int ativas;
+
+    @Label("Threads Aguardando")
+    int aguardando;
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.alexviana.alexvianaprojeto.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author Alex Viana
+ * Evento do Java Flight Recorder com a duração de cada fase do ciclo de vida JSF (ex: clientes.xhtml).
+ * Emitido pelo {@link JfrPhaseListener}.
+ */
+@Name("com.alexviana.FaseJsf")
+@Label("Fase JSF")
+@Category({"Alex Viana", "JSF"})
+@StackTrace(false)
+public class FaseJsfEvent extends Event {
+
+    @Label("View")
+    String view;
+
+    @Label("Fase")
+    String fase;
+
+    @Label("Postback")
+    boolean postback;
+}
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.alexviana.alexvianaprojeto.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * @author Alex Viana
+ * Gravação contínua do Java Flight Recorder em buffer circular (limitada por idade e tamanho), com a configuração
+ * "default" do JDK (baixo overhead) mais os eventos da aplicação ({@link OperacaoServicoEvent}, {@link FaseJsfEvent}
+ * e {@link EsperaConexaoEvent}).
+ * A gravação pode ser salva em arquivo sob demanda ({@code POST /api/admin/jfr/dump}) ou automaticamente quando uma
+ * operação de serviço ultrapassa o SLO de latência ({@code app.jfr.slo}), no máximo uma vez por
+ * {@code app.jfr.intervalo-minimo-dump}.
+ * <p>
+ * Os eventos que copiam variáveis de ambiente, propriedades de sistema e linhas de comando (da JVM e dos processos do sistema) ficam desligados
+ * (podem conter senhas, como {@code spring.datasource.password}). O diretório dos dumps é criado só com acesso
+ * do dono (quando o sistema de arquivos permite) e guarda no máximo {@code app.jfr.max-dumps} arquivos: os mais antigos são apagados.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class GravadorJfr {
+
+    private static final DateTimeFormatter FORMATO_ARQUIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String PREFIXO_ARQUIVO = "clientes-";
+    private static final List<String> EVENTOS_SENSIVEIS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+
+    private final Duration idadeMaxima;
+    private final DataSize tamanhoMaximo;
+    private final Duration slo;
+    private final Duration intervaloMinimoDump;
+    private final Path diretorio;
+    private final int maximoDumps;
+
+    private final AtomicLong ultimoDumpAutomatico = new AtomicLong();
+    private final Object travaDumps = new Object();
+    private Recording gravacao;
+    private RecordingStream monitorSlo;
+
+    public GravadorJfr(@Value("${app.jfr.max-age:30m}") Duration idadeMaxima,
+                       @Value("${app.jfr.max-size:100MB}") DataSize tamanhoMaximo,
+                       @Value("${app.jfr.slo:500ms}") Duration slo,
+                       @Value("${app.jfr.intervalo-minimo-dump:5m}") Duration intervaloMinimoDump,
+                       @Value("${app.jfr.diretorio:${java.io.tmpdir}/alex-viana-jfr}") Path diretorio,
+                       @Value("${app.jfr.max-dumps:10}") int maximoDumps) {
+        this.idadeMaxima = idadeMaxima;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.slo = slo;
+        this.intervaloMinimoDump = intervaloMinimoDump;
+        this.diretorio = diretorio;
+        this.maximoDumps = Math.max(1, maximoDumps);
+    }
+
+    /**
+     * Inicia a gravação contínua e o monitoramento do SLO quando a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() throws IOException, ParseException {
+        if (gravacao != null) {
+            return;
+        }
+        criarDiretorio();
+
+        Map<String, String> configuracao = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        for (String evento : EVENTOS_SENSIVEIS) {
+            configuracao.put(evento + "#enabled", "false");
+        }
+        gravacao = new Recording(configuracao);
+        gravacao.setName("alex-viana-continua");
+        gravacao.setToDisk(true);
+        gravacao.setMaxAge(idadeMaxima);
+        gravacao.setMaxSize(tamanhoMaximo.toBytes());
+        gravacao.enable(OperacaoServicoEvent.class);
+        gravacao.enable(FaseJsfEvent.class);
+        gravacao.enable(EsperaConexaoEvent.class);
+        gravacao.start();
+
+        // O stream lê o repositório em disco da JVM (todas as gravações), por isso a duração é conferida de novo no callback
+        monitorSlo = new RecordingStream();
+        monitorSlo.enable(OperacaoServicoEvent.class).withThreshold(slo);
+        monitorSlo.onEvent(OperacaoServicoEvent.NOME, this::verificarSlo);
+        monitorSlo.startAsync();
+    }
+
+    /**
+     * Salva o conteúdo atual do buffer circular em um arquivo .jfr e apaga os dumps mais antigos além de {@code app.jfr.max-dumps}.
+     * @param motivo Prefixo do arquivo (ex: manual, slo).
+     * @return O caminho do arquivo gerado.
+     * @throws IOException Se a gravação não estiver ativa ou o arquivo não puder ser escrito.
+     */
+    public Path dump(String motivo) throws IOException {
+        Recording atual = gravacao;
+        if (atual == null) {
+            throw new IOException("A gravação JFR contínua ainda não foi iniciada.");
+        }
+        synchronized (travaDumps) {
+            Path arquivo = diretorio.resolve(PREFIXO_ARQUIVO + motivo + "-" + LocalDateTime.now().format(FORMATO_ARQUIVO) + ".jfr");
+            atual.dump(arquivo);
+            apagarDumpsAntigos();
+            return arquivo;
+        }
+    }
+
+    private void criarDiretorio() throws IOException {
+        if (Files.isDirectory(diretorio)) {
+            return;
+        }
+        try {
+            Files.createDirectories(diretorio, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createDirectories(diretorio);
+        }
+    }
+
+    // Mantém apenas os maximoDumps arquivos mais recentes (manuais e automáticos)
+    private void apagarDumpsAntigos() throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            dumps = arquivos.filter(arquivo -> {
+                        String nome = arquivo.getFileName().toString();
+                        return nome.startsWith(PREFIXO_ARQUIVO) && nome.endsWith(".jfr");
+                    })
+                    .sorted(Comparator.comparing(GravadorJfr::modificadoEm).thenComparing(Path::getFileName).reversed())
+                    .toList();
+        }
+        for (Path antigo : dumps.subList(Math.min(maximoDumps, dumps.size()), dumps.size())) {
+            Files.deleteIfExists(antigo);
+        }
+    }
+
+    private static FileTime modificadoEm(Path arquivo) {
+        try {
+            return Files.getLastModifiedTime(arquivo);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private void verificarSlo(RecordedEvent evento) {
+        if (evento.getDuration().compareTo(slo) < 0) {
+            return;
+        }
+        long agora = System.nanoTime();
+        long ultimo = ultimoDumpAutomatico.get();
+        if (ultimo != 0 && agora - ultimo < intervaloMinimoDump.toNanos()) {
+            return;
+        }
+        if (!ultimoDumpAutomatico.compareAndSet(ultimo, agora)) {
+            return;
+        }
+        try {
+            Path arquivo = dump("slo");
+            System.err.println("SLO de " + slo.toMillis() + " ms violado por " + evento.getString("entidade") + "."
+                    + evento.getString("operacao") + " (" + evento.getDuration().toMillis() + " ms); gravação JFR salva em " + arquivo);
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar a gravação JFR após violação do SLO: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void encerrar() {
+        if (monitorSlo != null) {
+            monitorSlo.close();
+        }
+        if (gravacao != null) {
+            gravacao.close();
+        }
+    }
+}
\ No newline at end of file
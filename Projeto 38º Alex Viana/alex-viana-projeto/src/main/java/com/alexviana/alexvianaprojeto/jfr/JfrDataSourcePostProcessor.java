@@ -0,0 +1,37 @@
+package com.alexviana.alexvianaprojeto.jfr;
+
+import com.alexviana.alexvianaprojeto.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * @author Alex Viana
+ * Instala o {@link JfrMetricsTrackerFactory} nos pools HikariCP da aplicação: o DataSource padrão do Spring Boot
+ * ou cada shard do {@link ShardRoutingDataSource}. Precisa rodar antes do primeiro uso do pool, porque o Hikari
+ * bloqueia a configuração quando o pool é iniciado.
+ */
+public class JfrDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari) {
+            instalar(hikari);
+        } else if (bean instanceof ShardRoutingDataSource roteador) {
+            for (int i = 0; i < roteador.getQuantidadeShards(); i++) {
+                instalar(roteador.getShard(i));
+            }
+        }
+        return bean;
+    }
+
+    private static void instalar(HikariDataSource hikari) {
+        if (hikari.getMetricsTrackerFactory() != null) {
+            return; // Já existe outro tracker configurado (ex: Micrometer); o Hikari aceita apenas um
+        }
+        try {
+            hikari.setMetricsTrackerFactory(new JfrMetricsTrackerFactory());
+        } catch (IllegalStateException e) {
+            System.err.println("Pool " + hikari.getPoolName() + " já iniciado; eventos de espera por conexão desativados: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
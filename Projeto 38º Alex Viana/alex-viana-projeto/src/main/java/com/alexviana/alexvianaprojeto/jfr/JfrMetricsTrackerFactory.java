@@ -0,0 +1,42 @@
+package com.alexviana.alexvianaprojeto.jfr;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * @author Alex Viana
+ * Fábrica de "metrics trackers" do HikariCP que emite um {@link EsperaConexaoEvent} a cada conexão obtida do pool
+ * (ou a cada timeout). O Hikari chama o tracker na própria thread que pediu a conexão, então o evento fica
+ * associado à requisição que esperou.
+ */
+public class JfrMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                registrar(poolName, poolStats, elapsedAcquiredNanos, false);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                registrar(poolName, poolStats, 0, true);
+            }
+        };
+    }
+
+    private static void registrar(String pool, PoolStats estatisticas, long esperaNanos, boolean timeout) {
+        EsperaConexaoEvent evento = new EsperaConexaoEvent();
+        if (!evento.isEnabled()) {
+            return;
+        }
+        evento.pool = pool;
+        evento.espera = esperaNanos;
+        evento.timeout = timeout;
+        evento.ativas = estatisticas.getActiveConnections();
+        evento.aguardando = estatisticas.getPendingThreads();
+        evento.commit();
+    }
+}
\ No newline at end of file
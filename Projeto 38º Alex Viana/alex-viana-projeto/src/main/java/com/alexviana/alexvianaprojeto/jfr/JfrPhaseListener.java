@@ -0,0 +1,53 @@
+package com.alexviana.alexvianaprojeto.jfr;
+
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.PhaseEvent;
+import jakarta.faces.event.PhaseId;
+import jakarta.faces.event.PhaseListener;
+
+import java.util.Map;
+
+/**
+ * @author Alex Viana
+ * PhaseListener que mede cada fase do ciclo de vida JSF (ex: clientes.xhtml) com um {@link FaseJsfEvent}.
+ * Registrado em META-INF/faces-config.xml. O evento iniciado em beforePhase fica nos atributos do
+ * FacesContext até o afterPhase da mesma fase.
+ */
+public class JfrPhaseListener implements PhaseListener {
+
+    private static final String ATRIBUTO = JfrPhaseListener.class.getName() + ".evento";
+
+    @Override
+    public void beforePhase(PhaseEvent event) {
+        FaseJsfEvent evento = new FaseJsfEvent();
+        if (!evento.isEnabled()) {
+            return;
+        }
+        evento.begin();
+        event.getFacesContext().getAttributes().put(ATRIBUTO, evento);
+    }
+
+    @Override
+    public void afterPhase(PhaseEvent event) {
+        FacesContext contexto = event.getFacesContext();
+        Map<Object, Object> atributos = contexto.getAttributes();
+        FaseJsfEvent evento = (FaseJsfEvent) atributos.remove(ATRIBUTO);
+        if (evento == null) {
+            return;
+        }
+        evento.end();
+        if (evento.shouldCommit()) {
+            // A view só existe depois do RESTORE_VIEW, por isso é lida no afterPhase
+            evento.view = contexto.getViewRoot() != null ? contexto.getViewRoot().getViewId()
+                    : contexto.getExternalContext().getRequestServletPath();
+            evento.fase = event.getPhaseId().getName();
+            evento.postback = contexto.isPostback();
+            evento.commit();
+        }
+    }
+
+    @Override
+    public PhaseId getPhaseId() {
+        return PhaseId.ANY_PHASE;
+    }
+}
\ No newline at end of file
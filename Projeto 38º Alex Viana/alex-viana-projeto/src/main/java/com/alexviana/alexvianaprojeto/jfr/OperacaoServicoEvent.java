@@ -0,0 +1,96 @@
+package com.alexviana.alexvianaprojeto.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.security.SecureRandom;
+
+/**
+ * @author Alex Viana
+ * Evento do Java Flight Recorder para cada operação dos serviços (GenericService/ClienteService).
+ * A chave (ID ou CPF) é gravada apenas como hash com um sal aleatório por processo: permite correlacionar
+ * operações sobre o mesmo registro dentro de uma gravação sem expor o CPF.
+ * Uso: {@code iniciar(...)} antes da operação, {@code registrarResultado(...)} no sucesso e {@code concluir()} no finally.
+ */
+@Name(OperacaoServicoEvent.NOME)
+@Label("Operação de Serviço")
+@Category({"Alex Viana", "Serviços"})
+@StackTrace(false)
+public class OperacaoServicoEvent extends Event {
+
+    public static final String NOME = "com.alexviana.OperacaoServico";
+
+    private static final long SAL = new SecureRandom().nextLong();
+
+    @Label("Entidade")
+    String entidade;
+
+    @Label("Operação")
+    String operacao;
+
+    @Label("Origem")
+    @Description("De onde veio o resultado: banco ou snapshot em memória")
+    String origem;
+
+    @Label("Hash da Chave")
+    @Description("Hash com sal do ID ou CPF consultado (0 quando a operação não tem chave)")
+    long chaveHash;
+
+    @Label("Linhas")
+    int linhas;
+
+    @Label("Sucesso")
+    boolean sucesso;
+
+    /**
+     * Cria e inicia a medição de uma operação.
+     * @param entidade O nome da entidade (ex: Cliente).
+     * @param operacao O nome da operação (ex: consultar).
+     * @param chave O ID ou CPF da operação, ou {@code null}.
+     * @return O evento iniciado.
+     */
+    public static OperacaoServicoEvent iniciar(String entidade, String operacao, Object chave) {
+        OperacaoServicoEvent evento = new OperacaoServicoEvent();
+        evento.entidade = entidade;
+        evento.operacao = operacao;
+        evento.origem = "banco";
+        evento.chaveHash = chave == null ? 0 : misturar(chave.hashCode() ^ SAL);
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Marca a operação como bem-sucedida.
+     * @param linhas A quantidade de registros retornados ou afetados.
+     */
+    public void registrarResultado(int linhas) {
+        this.linhas = linhas;
+        this.sucesso = true;
+    }
+
+    /**
+     * Marca a operação como respondida pelo snapshot em memória.
+     */
+    public void origemSnapshot() {
+        this.origem = "snapshot";
+    }
+
+    /**
+     * Encerra a medição e grava o evento, se a gravação estiver ativa e o limiar configurado for atingido.
+     */
+    public void concluir() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+
+    private static long misturar(long valor) {
+        long h = valor * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 31);
+    }
+}
\ No newline at end of file
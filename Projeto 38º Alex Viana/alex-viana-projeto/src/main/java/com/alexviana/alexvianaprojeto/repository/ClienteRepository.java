@@ -1,6 +1,7 @@
 package com.alexviana.alexvianaprojeto.repository;
 
 import com.alexviana.alexvianaprojeto.domain.Cliente;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,9 +30,31 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     /**
      * Filtra clientes por parte do nome, realizando uma busca case-insensitive.
      * Utiliza uma JPQL (Java Persistence Query Language) para uma consulta personalizada.
+     * O {@code ESCAPE} explícito faz a barra invertida escapar {@code %} e {@code _} em qualquer banco: sem ele, o
+     * PostgreSQL usa a barra como escape e o H2 (pelo Hibernate) não, e o snapshot em memória segue a mesma regra.
      * @param nome Parte do nome a ser pesquisada.
      * @return Uma {@link List} de clientes que correspondem ao critério de busca.
      */
-    @Query("SELECT c FROM Cliente c WHERE LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%'))")
+    @Query("SELECT c FROM Cliente c WHERE LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%')) ESCAPE '\\'")
     List<Cliente> filtrarClientes(@Param("nome") String nome);
+
+    /**
+     * Busca o próximo lote de clientes com ID maior que o informado, em ordem de ID (paginação por chave).
+     * Usado na carga do snapshot em memória: ao contrário da paginação por offset, não pula nem repete registros
+     * quando há inserções ou exclusões durante a leitura.
+     * @param id O último ID do lote anterior.
+     * @param pageable O tamanho do lote.
+     * @return Uma {@link List} com até {@code pageable.getPageSize()} clientes.
+     */
+    List<Cliente> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Lê o estado e a cidade gravados de um cliente, bloqueando a linha até o fim da transação (FOR UPDATE).
+     * Usado na alteração e na exclusão para descontar a região anterior da contagem por região sem que uma
+     * alteração concorrente do mesmo cliente desconte a mesma região duas vezes.
+     * @param id O ID do cliente.
+     * @return Uma lista vazia se o cliente não existir, ou uma linha [estado, cidade].
+     */
+    @Query(value = "SELECT ESTADO, CIDADE FROM TB_CLIENTE WHERE ID = :id FOR UPDATE", nativeQuery = true)
+    List<Object[]> buscarRegiaoParaAtualizacao(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.alexviana.alexvianaprojeto.repository;
+
+import com.alexviana.alexvianaprojeto.domain.EstatisticaRegiao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author Alex Viana
+ * Repositório da contagem de clientes por região (TB_ESTATISTICA_REGIAO).
+ * As alterações usam SQL nativo para serem atômicas no banco (QUANTIDADE = QUANTIDADE + delta), sem ler a linha antes.
+ * Os comandos também são usados pelo rebalanceamento de shards, com os mesmos parâmetros nomeados.
+ */
+@Repository
+public interface EstatisticaRegiaoRepository extends JpaRepository<EstatisticaRegiao, EstatisticaRegiao.Regiao> {
+
+    String SQL_INCREMENTAR = "UPDATE TB_ESTATISTICA_REGIAO SET QUANTIDADE = QUANTIDADE + :delta "
+            + "WHERE ESTADO = :estado AND CIDADE = :cidade";
+
+    String SQL_INSERIR_SE_AUSENTE = "INSERT INTO TB_ESTATISTICA_REGIAO (ESTADO, CIDADE, QUANTIDADE) "
+            + "VALUES (:estado, :cidade, :delta) ON CONFLICT DO NOTHING";
+
+    // Mesma regra de EstatisticaRegiao.Regiao.de: estado ou cidade ausente conta como ''
+    String SQL_CONTAGEM_CLIENTES = "SELECT COALESCE(ESTADO, '') AS ESTADO, COALESCE(CIDADE, '') AS CIDADE, COUNT(*) AS QUANTIDADE "
+            + "FROM TB_CLIENTE GROUP BY COALESCE(ESTADO, ''), COALESCE(CIDADE, '')";
+
+    /**
+     * Soma {@code delta} à quantidade da região.
+     * @return 1 se a região já existia, 0 caso contrário.
+     */
+    @Modifying
+    @Query(value = SQL_INCREMENTAR, nativeQuery = true)
+    int incrementar(@Param("estado") String estado, @Param("cidade") String cidade, @Param("delta") long delta);
+
+    /**
+     * Cria a região com a quantidade {@code delta}, se outra transação não a criou antes.
+     * @return 1 se a linha foi criada, 0 se já existia.
+     */
+    @Modifying
+    @Query(value = SQL_INSERIR_SE_AUSENTE, nativeQuery = true)
+    int inserirSeAusente(@Param("estado") String estado, @Param("cidade") String cidade, @Param("delta") long delta);
+
+    /**
+     * Lista as regiões com pelo menos um cliente. O custo depende da quantidade de regiões, não de clientes.
+     */
+    List<EstatisticaRegiao> findByQuantidadeGreaterThanOrderByEstadoAscCidadeAsc(long quantidade);
+
+    /**
+     * Lista as regiões descontando os clientes dos buckets informados ({@code MOD(ID, totalBuckets)}), em um único
+     * comando: as linhas e a contagem vêm da mesma visão do banco. Usada no sharding, para ignorar as linhas de um
+     * bucket que ainda estão no shard de origem (ou já no destino) durante uma migração.
+     * @return Linhas [estado, cidade, quantidade] das regiões com pelo menos um cliente, ordenadas por estado e cidade.
+     */
+    @Query(value = "SELECT E.ESTADO, E.CIDADE, E.QUANTIDADE - COALESCE(B.QUANTIDADE, 0) FROM TB_ESTATISTICA_REGIAO E "
+            + "LEFT JOIN (SELECT COALESCE(ESTADO, '') AS ESTADO, COALESCE(CIDADE, '') AS CIDADE, COUNT(*) AS QUANTIDADE "
+            + "FROM TB_CLIENTE WHERE MOD(ID, :totalBuckets) IN (:buckets) GROUP BY COALESCE(ESTADO, ''), COALESCE(CIDADE, '')) B "
+            + "ON B.ESTADO = E.ESTADO AND B.CIDADE = E.CIDADE "
+            + "WHERE E.QUANTIDADE - COALESCE(B.QUANTIDADE, 0) > 0 ORDER BY E.ESTADO, E.CIDADE", nativeQuery = true)
+    List<Object[]> contarPorRegiaoSemBuckets(@Param("totalBuckets") int totalBuckets, @Param("buckets") Collection<Integer> buckets);
+
+    @Modifying
+    @Query(value = "DELETE FROM TB_ESTATISTICA_REGIAO", nativeQuery = true)
+    int excluirTodas();
+
+    /**
+     * Recria as contagens a partir da TB_CLIENTE (usar após {@link #excluirTodas()}, na mesma transação).
+     * @return A quantidade de regiões criadas.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO TB_ESTATISTICA_REGIAO (ESTADO, CIDADE, QUANTIDADE) SELECT ESTADO, CIDADE, QUANTIDADE FROM ("
+            + SQL_CONTAGEM_CLIENTES + ") C", nativeQuery = true)
+    int recriarAPartirDosClientes();
+
+    /**
+     * Compara, em um único comando (mesma visão do banco), a contagem real de TB_CLIENTE com a registrada.
+     * Regiões com quantidade registrada zero equivalem a regiões ausentes.
+     * @return Linhas [estado, cidade, quantidade real, quantidade registrada] das regiões divergentes.
+     */
+    @Query(value = "SELECT C.ESTADO, C.CIDADE, C.QUANTIDADE, COALESCE(E.QUANTIDADE, 0) FROM (" + SQL_CONTAGEM_CLIENTES + ") C "
+            + "LEFT JOIN TB_ESTATISTICA_REGIAO E ON E.ESTADO = C.ESTADO AND E.CIDADE = C.CIDADE "
+            + "WHERE E.QUANTIDADE IS NULL OR E.QUANTIDADE <> C.QUANTIDADE "
+            + "UNION ALL "
+            + "SELECT E.ESTADO, E.CIDADE, 0, E.QUANTIDADE FROM TB_ESTATISTICA_REGIAO E "
+            + "WHERE E.QUANTIDADE <> 0 AND NOT EXISTS (SELECT 1 FROM TB_CLIENTE C WHERE COALESCE(C.ESTADO, '') = E.ESTADO "
+            + "AND COALESCE(C.CIDADE, '') = E.CIDADE)", nativeQuery = true)
+    List<Object[]> buscarDivergencias();
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.alexviana.alexvianaprojeto.service;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+
+/**
+ * @author Alex Viana
+ * Componente notificado pelo {@link ClienteService} depois que uma alteração de cliente é confirmada (commit).
+ * Usado por estruturas mantidas em memória a partir do banco, como o snapshot de leitura.
+ * Os listeners são chamados na ordem de {@code @Order}: primeiro os modelos de leitura ({@link #ORDEM_MODELO_LEITURA}),
+ * depois os caches montados a partir deles ({@link #ORDEM_CACHE}), para que uma leitura feita logo após a invalidação
+ * de um cache já encontre o modelo de leitura atualizado.
+ */
+public interface ClienteAlteracaoListener {
+
+    int ORDEM_MODELO_LEITURA = 0;
+    int ORDEM_CACHE = 100;
+
+    /**
+     * Chamado após o commit de um cadastro ou de uma alteração.
+     * @param cliente O cliente como foi salvo (com ID preenchido).
+     */
+    void aposSalvar(Cliente cliente);
+
+    /**
+     * Chamado após o commit de uma exclusão.
+     * @param cliente O cliente excluído.
+     */
+    void aposExcluir(Cliente cliente);
+}
\ No newline at end of file
@@ -1,35 +1,99 @@
 package com.alexviana.alexvianaprojeto.service;
 
 import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.domain.EstatisticaRegiao;
 import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.jfr.OperacaoServicoEvent;
 import com.alexviana.alexvianaprojeto.repository.ClienteRepository;
 import com.alexviana.alexvianaprojeto.service.generic.GenericService;
+import com.alexviana.alexvianaprojeto.snapshot.ClienteSnapshot;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author Alex Viana
  * Implementação do serviço para operações com a entidade Cliente.
  * Contém a lógica de negócio específica para clientes, como a validação de CPF único.
+ * Cada escrita atualiza, na mesma transação, a contagem de clientes por região ({@link EstatisticaRegiaoService}).
  */
 @Service // Indica que esta classe é um componente de serviço Spring
 public class ClienteService extends GenericService<Cliente, Long> implements IClienteService {
 
     private final ClienteRepository clienteRepository;
+    private final ObjectProvider<ClienteSnapshot> snapshot;
+    private final ObjectProvider<ClienteAlteracaoListener> listeners;
+    private final EstatisticaRegiaoService estatisticaRegiaoService;
+    private final TravasCpf travasCpf;
+    private final TransactionTemplate transacao;
 
     /**
      * Construtor para injeção de dependência do ClienteRepository.
      * O {@code super(clienteRepository)} passa o repositório para o construtor da classe pai (GenericService).
      * @param clienteRepository O repositório de clientes injetado pelo Spring.
+     * @param snapshot O snapshot de leitura em memória, se ativo ({@code app.snapshot.enabled}).
+     * @param listeners Componentes notificados após o commit de cada alteração.
+     * @param estatisticaRegiaoService A contagem de clientes por região, atualizada a cada escrita.
+     * @param travasCpf As travas por CPF que serializam cadastros do mesmo CPF.
+     * @param transactionManager O gerenciador da transação do cadastro, aberta depois de travar o CPF.
      */
     @Autowired
-    public ClienteService(ClienteRepository clienteRepository) {
+    public ClienteService(ClienteRepository clienteRepository, ObjectProvider<ClienteSnapshot> snapshot,
+                          ObjectProvider<ClienteAlteracaoListener> listeners, EstatisticaRegiaoService estatisticaRegiaoService,
+                          TravasCpf travasCpf, PlatformTransactionManager transactionManager) {
         super(clienteRepository);
         this.clienteRepository = clienteRepository;
+        this.snapshot = snapshot;
+        this.listeners = listeners;
+        this.estatisticaRegiaoService = estatisticaRegiaoService;
+        this.travasCpf = travasCpf;
+        this.transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public Optional<Cliente> consultar(Long id) throws DAOException {
+        ClienteSnapshot leitura = snapshotParaLeitura();
+        if (leitura != null && id != null) {
+            OperacaoServicoEvent evento = iniciarEvento("consultar", id);
+            evento.origemSnapshot();
+            try {
+                Optional<Cliente> resultado = leitura.consultar(id);
+                evento.registrarResultado(resultado.isPresent() ? 1 : 0);
+                return resultado;
+            } finally {
+                evento.concluir();
+            }
+        }
+        return super.consultar(id);
+    }
+
+    @Override
+    public Collection<Cliente> buscarTodos() throws DAOException {
+        ClienteSnapshot leitura = snapshotParaLeitura();
+        if (leitura == null) {
+            return super.buscarTodos();
+        }
+        OperacaoServicoEvent evento = iniciarEvento("buscarTodos", null);
+        evento.origemSnapshot();
+        try {
+            Collection<Cliente> resultado = leitura.buscarTodos();
+            evento.registrarResultado(resultado.size());
+            return resultado;
+        } finally {
+            evento.concluir();
+        }
     }
 
     @Override
@@ -37,10 +101,23 @@ public class ClienteService extends GenericService<Cliente, Long> implements ICl
         if (cpf == null) {
             throw new DAOException("O CPF para busca não pode ser nulo.");
         }
+        OperacaoServicoEvent evento = iniciarEvento("buscarPorCPF", cpf);
         try {
-            return clienteRepository.findByCpf(cpf);
+            Optional<Cliente> resultado;
+            ClienteSnapshot leitura = snapshotParaLeitura();
+            if (leitura != null) {
+                evento.origemSnapshot();
+                resultado = leitura.buscarPorCpf(cpf);
+            } else {
+                resultado = coalescer("buscarPorCPF", cpf, () -> clienteRepository.findByCpf(cpf),
+                        encontrado -> encontrado.map(this::copiar));
+            }
+            evento.registrarResultado(resultado.isPresent() ? 1 : 0);
+            return resultado;
         } catch (Exception e) {
             throw new DAOException("Erro ao buscar cliente por CPF: " + cpf, e);
+        } finally {
+            evento.concluir();
         }
     }
 
@@ -48,20 +125,65 @@ public class ClienteService extends GenericService<Cliente, Long> implements ICl
     public List<Cliente> filtrarClientes(String query) {
         // Este método não lança DAOException no original, mantendo a consistência.
         // O repositório já trata a busca, e a lista pode ser vazia sem ser um erro.
-        return clienteRepository.filtrarClientes(query);
+        OperacaoServicoEvent evento = iniciarEvento("filtrarClientes", null);
+        try {
+            List<Cliente> resultado;
+            ClienteSnapshot leitura = snapshotParaLeitura();
+            if (leitura != null) {
+                evento.origemSnapshot();
+                resultado = leitura.filtrarPorNome(query);
+            } else {
+                resultado = filtrarNoBanco(query);
+            }
+            evento.registrarResultado(resultado.size());
+            return resultado;
+        } finally {
+            evento.concluir();
+        }
     }
 
+    /**
+     * Cadastra o cliente com o CPF travado. A trava é obtida antes da transação: quem espera pelo mesmo CPF não segura
+     * conexão do pool. A transação é aberta e confirmada dentro da trava, e só a advisory lock do banco, quando ativa,
+     * é tomada dentro dela. O {@code SUPPORTS} substitui o {@code @Transactional} herdado do GenericService, que
+     * abriria a transação antes da trava.
+     */
     @Override
-    @Transactional // Garante que a operação de cadastro seja transacional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Cliente cadastrar(Cliente cliente) throws DAOException {
         if (cliente == null || cliente.getCpf() == null) {
             throw new DAOException("Dados do cliente ou CPF não podem ser nulos para cadastro.");
         }
-        // Regra de negócio: CPF deve ser único no sistema.
+        return travasCpf.executarComCpfTravado(cliente.getCpf(), () -> cadastrarEmTransacao(cliente));
+    }
+
+    // O TransactionTemplate só repassa exceções não verificadas: a DAOException atravessa embrulhada (e desfaz a transação)
+    private Cliente cadastrarEmTransacao(Cliente cliente) throws DAOException {
+        try {
+            return transacao.execute(status -> {
+                try {
+                    return cadastrarComCpfTravado(cliente);
+                } catch (DAOException e) {
+                    throw new FalhaNoCadastro(e);
+                }
+            });
+        } catch (FalhaNoCadastro e) {
+            throw e.causa;
+        }
+    }
+
+    private Cliente cadastrarComCpfTravado(Cliente cliente) throws DAOException {
+        // Regra de negócio: CPF deve ser único no sistema. A trava impede que dois cadastros do mesmo CPF passem juntos
+        // pela verificação.
+        travasCpf.travarNoBanco(cliente.getCpf());
         validarCpfUnico(cliente.getCpf());
+        normalizarRegiao(cliente);
         // Chama o método cadastrar da classe pai (GenericService) para persistir o cliente.
         try {
-            return super.cadastrar(cliente);
+            Cliente cadastrado = super.cadastrar(cliente);
+            estatisticaRegiaoService.ajustar(regiaoDe(cadastrado), 1);
+            notificarAposCommit(listener -> listener.aposSalvar(cadastrado));
+            return cadastrado;
         } catch (DAOException e) {
             // Re-lança a exceção se já for uma DAOException específica (ex: ID já existente)
             throw e;
@@ -70,6 +192,96 @@ public class ClienteService extends GenericService<Cliente, Long> implements ICl
         }
     }
 
+    @Override
+    @Transactional
+    public Cliente alterar(Cliente cliente) throws DAOException {
+        if (cliente != null) {
+            normalizarRegiao(cliente);
+        }
+        Optional<EstatisticaRegiao.Regiao> anterior = regiaoGravada(cliente);
+        Cliente alterado = super.alterar(cliente);
+        if (anterior.isPresent()) {
+            estatisticaRegiaoService.mover(anterior.get(), regiaoDe(alterado));
+        }
+        notificarAposCommit(listener -> listener.aposSalvar(alterado));
+        return alterado;
+    }
+
+    @Override
+    @Transactional
+    public void excluir(Cliente cliente) throws DAOException {
+        Optional<EstatisticaRegiao.Regiao> anterior = regiaoGravada(cliente);
+        super.excluir(cliente);
+        if (anterior.isPresent()) {
+            estatisticaRegiaoService.ajustar(anterior.get(), -1);
+        }
+        notificarAposCommit(listener -> listener.aposExcluir(cliente));
+    }
+
+    @Override
+    public List<EstatisticaRegiao> contarPorRegiao() throws DAOException {
+        return estatisticaRegiaoService.contarPorRegiao();
+    }
+
+    /**
+     * Contagem por região do shard atual sem os clientes dos buckets informados (usada pelo {@link ShardedClienteService}).
+     */
+    public List<EstatisticaRegiao> contarPorRegiaoSemBuckets(int totalBuckets, Collection<Integer> buckets) throws DAOException {
+        return estatisticaRegiaoService.contarPorRegiaoSemBuckets(totalBuckets, buckets);
+    }
+
+    @Override
+    protected Cliente copiar(Cliente cliente) {
+        return cliente.toBuilder().build();
+    }
+
+    /**
+     * Filtra no banco, coalescendo filtros simultâneos pelo mesmo nome (a busca já ignora maiúsculas/minúsculas).
+     * Se a espera pelo filtro em andamento expirar, a falha sobe como exceção não verificada (este método não lança
+     * DAOException). Repetir a consulta aqui multiplicaria a carga justamente quando o banco já está lento.
+     */
+    private List<Cliente> filtrarNoBanco(String query) {
+        String chave = query == null ? null : query.toLowerCase(Locale.ROOT);
+        try {
+            return coalescer("filtrarClientes", chave, () -> clienteRepository.filtrarClientes(query),
+                    clientes -> clientes.stream().map(this::copiar).toList());
+        } catch (DAOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Padroniza cidade e estado antes de gravar, para que a mesma região não seja contada com grafias diferentes
+     * por espaços ou caixa do estado. Valores em branco viram nulos.
+     */
+    private static void normalizarRegiao(Cliente cliente) {
+        String cidade = cliente.getCidade() == null ? null : cliente.getCidade().strip();
+        String estado = cliente.getEstado() == null ? null : cliente.getEstado().strip().toUpperCase(Locale.ROOT);
+        cliente.setCidade(cidade == null || cidade.isEmpty() ? null : cidade);
+        cliente.setEstado(estado == null || estado.isEmpty() ? null : estado);
+    }
+
+    private static EstatisticaRegiao.Regiao regiaoDe(Cliente cliente) {
+        return EstatisticaRegiao.Regiao.de(cliente.getEstado(), cliente.getCidade());
+    }
+
+    /**
+     * Lê a região gravada do cliente, bloqueando a linha até o fim da transação.
+     * Vazio se o cliente (ou o ID) não existir; nesse caso a escrita falha em seguida no GenericService.
+     */
+    private Optional<EstatisticaRegiao.Regiao> regiaoGravada(Cliente cliente) throws DAOException {
+        if (cliente == null || cliente.getId() == null) {
+            return Optional.empty();
+        }
+        try {
+            List<Object[]> linhas = clienteRepository.buscarRegiaoParaAtualizacao(cliente.getId());
+            return linhas.isEmpty() ? Optional.empty()
+                    : Optional.of(EstatisticaRegiao.Regiao.de((String) linhas.get(0)[0], (String) linhas.get(0)[1]));
+        } catch (Exception e) {
+            throw new DAOException("Erro ao ler a região do cliente com ID " + cliente.getId(), e);
+        }
+    }
+
     /**
      * Valida se um CPF já está cadastrado no sistema.
      * Este é um método de suporte privado que implementa uma regra de negócio.
@@ -83,7 +295,43 @@ public class ClienteService extends GenericService<Cliente, Long> implements ICl
         }
     }
 
-    // Métodos de alterar, excluir, consultar (por ID) e buscarTodos são herdados e já implementados
-    // na classe pai GenericService. Podem ser sobrescritos aqui se houver regras de negócio
-    // específicas para clientes para essas operações.
+    /**
+     * Devolve o snapshot em memória se ele puder responder à leitura.
+     * Dentro de uma transação a leitura vai ao banco, para enxergar as alterações ainda não confirmadas.
+     */
+    private ClienteSnapshot snapshotParaLeitura() {
+        ClienteSnapshot leitura = snapshot.getIfAvailable();
+        if (leitura == null || !leitura.isCarregado() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        return leitura;
+    }
+
+    /**
+     * Notifica os {@link ClienteAlteracaoListener} após o commit da transação atual (ou imediatamente, fora de transação).
+     */
+    private void notificarAposCommit(Consumer<ClienteAlteracaoListener> notificacao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            listeners.orderedStream().forEach(notificacao);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                listeners.orderedStream().forEach(notificacao);
+            }
+        });
+    }
+
+    private static final class FalhaNoCadastro extends RuntimeException {
+        private final DAOException causa;
+
+        private FalhaNoCadastro(DAOException causa) {
+            super(causa);
+            this.causa = causa;
+        }
+    }
+
+    // Os métodos de consulta e alteração acima complementam os herdados da classe pai GenericService
+    // com o snapshot em memória e a notificação dos listeners; as regras de persistência continuam lá.
 }
\ No newline at end of file
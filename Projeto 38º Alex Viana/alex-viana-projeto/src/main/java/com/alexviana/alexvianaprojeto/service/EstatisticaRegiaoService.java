@@ -0,0 +1,157 @@
+package com.alexviana.alexvianaprojeto.service;
+
+import com.alexviana.alexvianaprojeto.domain.EstatisticaRegiao;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.repository.EstatisticaRegiaoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author Alex Viana
+ * Contagem de clientes por estado e cidade (TB_ESTATISTICA_REGIAO) no banco atual (com sharding, no shard da operação).
+ * Os ajustes rodam dentro da transação da escrita do cliente: o cliente e a contagem são confirmados juntos.
+ * A reconstrução e a verificação de consistência comparam a contagem com um GROUP BY na TB_CLIENTE.
+ */
+@Service
+public class EstatisticaRegiaoService {
+
+    private final EstatisticaRegiaoRepository estatisticaRegiaoRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Região cuja quantidade registrada difere da contagem real.
+     * @param estado O estado.
+     * @param cidade A cidade.
+     * @param quantidadeReal Quantidade de clientes na TB_CLIENTE.
+     * @param quantidadeRegistrada Quantidade na TB_ESTATISTICA_REGIAO.
+     */
+    public record Divergencia(String estado, String cidade, long quantidadeReal, long quantidadeRegistrada) {
+    }
+
+    @Autowired
+    public EstatisticaRegiaoService(EstatisticaRegiaoRepository estatisticaRegiaoRepository) {
+        this.estatisticaRegiaoRepository = estatisticaRegiaoRepository;
+    }
+
+    /**
+     * Soma {@code delta} à quantidade da região. Exige uma transação ativa (a da escrita do cliente).
+     * A linha da região fica bloqueada até o commit; a linha só é criada se ainda não existir.
+     * @param regiao A região.
+     * @param delta +1 para cadastro, -1 para exclusão.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ajustar(EstatisticaRegiao.Regiao regiao, long delta) {
+        if (estatisticaRegiaoRepository.incrementar(regiao.getEstado(), regiao.getCidade(), delta) > 0) {
+            return;
+        }
+        if (estatisticaRegiaoRepository.inserirSeAusente(regiao.getEstado(), regiao.getCidade(), delta) > 0) {
+            return;
+        }
+        // Outra transação criou a região entre o UPDATE e o INSERT; agora o UPDATE encontra a linha
+        estatisticaRegiaoRepository.incrementar(regiao.getEstado(), regiao.getCidade(), delta);
+    }
+
+    /**
+     * Move um cliente de região (alteração de cidade ou estado). Não faz nada se a região não mudou.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void mover(EstatisticaRegiao.Regiao anterior, EstatisticaRegiao.Regiao nova) {
+        if (anterior.equals(nova)) {
+            return;
+        }
+        ajustar(anterior, -1);
+        ajustar(nova, 1);
+    }
+
+    /**
+     * @return As regiões com pelo menos um cliente, ordenadas por estado e cidade.
+     * @throws DAOException Se ocorrer um erro no acesso ao banco.
+     */
+    public List<EstatisticaRegiao> contarPorRegiao() throws DAOException {
+        try {
+            return estatisticaRegiaoRepository.findByQuantidadeGreaterThanOrderByEstadoAscCidadeAsc(0);
+        } catch (Exception e) {
+            throw new DAOException("Erro ao consultar a quantidade de clientes por região.", e);
+        }
+    }
+
+    /**
+     * Como {@link #contarPorRegiao()}, descontando os clientes dos buckets informados (sharding).
+     * @param totalBuckets A quantidade de buckets do ID ({@code MOD(ID, totalBuckets)} é o bucket).
+     * @param buckets Os buckets a descontar; vazio equivale a {@link #contarPorRegiao()}.
+     * @throws DAOException Se ocorrer um erro no acesso ao banco.
+     */
+    public List<EstatisticaRegiao> contarPorRegiaoSemBuckets(int totalBuckets, Collection<Integer> buckets) throws DAOException {
+        if (buckets.isEmpty()) {
+            return contarPorRegiao();
+        }
+        try {
+            List<EstatisticaRegiao> regioes = new ArrayList<>();
+            for (Object[] linha : estatisticaRegiaoRepository.contarPorRegiaoSemBuckets(totalBuckets, buckets)) {
+                regioes.add(new EstatisticaRegiao((String) linha[0], (String) linha[1], ((Number) linha[2]).longValue()));
+            }
+            return regioes;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao consultar a quantidade de clientes por região.", e);
+        }
+    }
+
+    /**
+     * Recria toda a contagem a partir da TB_CLIENTE.
+     * Em PostgreSQL, a tabela de contagem é bloqueada (EXCLUSIVE) durante a reconstrução: as escritas de clientes
+     * esperam e aplicam o próprio ajuste depois, sobre a contagem nova. Quem já tinha ajustado a contagem
+     * é esperado pelo LOCK e tem o cliente incluído no GROUP BY.
+     * Nos outros bancos (o H2 dos perfis locais e dos testes) não há esse bloqueio: uma escrita de cliente concorrente
+     * com a reconstrução pode ser contada duas vezes ou nenhuma. Nesses bancos, reconstrua sem escritas em andamento
+     * ou confira depois com {@link #verificar()}.
+     * @return A quantidade de regiões recriadas.
+     * @throws DAOException Se ocorrer um erro no acesso ao banco.
+     */
+    @Transactional
+    public int reconstruir() throws DAOException {
+        try {
+            if (isPostgreSQL()) {
+                entityManager.createNativeQuery("LOCK TABLE TB_ESTATISTICA_REGIAO IN EXCLUSIVE MODE").executeUpdate();
+            }
+            estatisticaRegiaoRepository.excluirTodas();
+            return estatisticaRegiaoRepository.recriarAPartirDosClientes();
+        } catch (Exception e) {
+            throw new DAOException("Erro ao reconstruir a quantidade de clientes por região.", e);
+        }
+    }
+
+    /**
+     * Compara a contagem registrada com a contagem real, em um único comando SQL.
+     * @return As regiões divergentes (lista vazia se a contagem estiver consistente).
+     * @throws DAOException Se ocorrer um erro no acesso ao banco.
+     */
+    @Transactional(readOnly = true)
+    public List<Divergencia> verificar() throws DAOException {
+        try {
+            List<Divergencia> divergencias = new ArrayList<>();
+            for (Object[] linha : estatisticaRegiaoRepository.buscarDivergencias()) {
+                divergencias.add(new Divergencia((String) linha[0], (String) linha[1],
+                        ((Number) linha[2]).longValue(), ((Number) linha[3]).longValue()));
+            }
+            return divergencias;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao verificar a quantidade de clientes por região.", e);
+        }
+    }
+
+    private boolean isPostgreSQL() {
+        return entityManager.unwrap(Session.class).doReturningWork(conexao ->
+                conexao.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql"));
+    }
+}
\ No newline at end of file
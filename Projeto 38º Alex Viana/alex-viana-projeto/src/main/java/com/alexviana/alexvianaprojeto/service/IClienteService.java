@@ -1,11 +1,14 @@
 package com.alexviana.alexvianaprojeto.service;
 
 import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.domain.EstatisticaRegiao;
 import com.alexviana.alexvianaprojeto.exceptions.DAOException;
 import com.alexviana.alexvianaprojeto.service.generic.IGenericService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * @author Alex Viana
@@ -29,6 +32,26 @@ public interface IClienteService extends IGenericService<Cliente, Long> {
      */
     List<Cliente> filtrarClientes(String query);
 
+    /**
+     * Quantidade de clientes por estado e cidade, lida da contagem mantida a cada escrita (sem varrer os clientes).
+     * @return As regiões com pelo menos um cliente, ordenadas por estado e cidade.
+     * @throws DAOException Se ocorrer um erro durante o acesso a dados.
+     */
+    List<EstatisticaRegiao> contarPorRegiao() throws DAOException;
+
+    /**
+     * Quantidade de clientes por estado, somando as cidades de {@link #contarPorRegiao()}.
+     * @return Mapa estado -> quantidade, ordenado por estado ({@code ""} para clientes sem estado).
+     * @throws DAOException Se ocorrer um erro durante o acesso a dados.
+     */
+    default Map<String, Long> contarPorEstado() throws DAOException {
+        Map<String, Long> porEstado = new TreeMap<>();
+        for (EstatisticaRegiao regiao : contarPorRegiao()) {
+            porEstado.merge(regiao.getEstado(), regiao.getQuantidade(), Long::sum);
+        }
+        return porEstado;
+    }
+
     // O método validarCpfUnico foi removido da interface, pois é uma regra de negócio
     // interna da implementação do serviço e não um método público do contrato.
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.alexviana.alexvianaprojeto.service;
+
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.sharding.ShardContext;
+import com.alexviana.alexvianaprojeto.sharding.ShardMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * @author Alex Viana
+ * Verificação de consistência e reconstrução da contagem de clientes por região ({@link EstatisticaRegiaoService}).
+ * Com sharding ativo, cada shard tem a própria contagem e é verificado (ou reconstruído) separadamente, nas threads
+ * do {@code shardExecutor}: na thread da requisição, o EntityManager do open-session-in-view já estaria preso à
+ * conexão do primeiro shard usado e todas as transações iriam para ele.
+ * A verificação periódica ({@code app.estatisticas.verificacao-cron}) reconstrói os shards divergentes
+ * se {@code app.estatisticas.reconstruir-automaticamente=true}.
+ */
+@Component
+public class ManutencaoEstatisticaRegiao {
+
+    private final EstatisticaRegiaoService estatisticaRegiaoService;
+    private final ObjectProvider<ShardMap> shardMap;
+    private final ObjectProvider<ExecutorService> shardExecutor;
+    private final boolean reconstruirAutomaticamente;
+
+    @Autowired
+    public ManutencaoEstatisticaRegiao(EstatisticaRegiaoService estatisticaRegiaoService, ObjectProvider<ShardMap> shardMap,
+                                       @Qualifier("shardExecutor") ObjectProvider<ExecutorService> shardExecutor,
+                                       @Value("${app.estatisticas.reconstruir-automaticamente:true}") boolean reconstruirAutomaticamente) {
+        this.estatisticaRegiaoService = estatisticaRegiaoService;
+        this.shardMap = shardMap;
+        this.shardExecutor = shardExecutor;
+        this.reconstruirAutomaticamente = reconstruirAutomaticamente;
+    }
+
+    /**
+     * @return As divergências de cada shard (shard -> divergências; shard 0 sem sharding). Lista vazia = consistente.
+     * @throws DAOException Se a verificação de algum shard falhar.
+     */
+    public Map<Integer, List<EstatisticaRegiaoService.Divergencia>> verificar() throws DAOException {
+        return executarNosShards(todosOsShards(), estatisticaRegiaoService::verificar);
+    }
+
+    /**
+     * Reconstrói a contagem de todos os shards a partir dos clientes.
+     * @return A quantidade de regiões recriadas em cada shard.
+     * @throws DAOException Se a reconstrução de algum shard falhar (os demais shards permanecem reconstruídos).
+     */
+    public Map<Integer, Integer> reconstruir() throws DAOException {
+        return executarNosShards(todosOsShards(), estatisticaRegiaoService::reconstruir);
+    }
+
+    /**
+     * Verificação periódica: registra as divergências encontradas e, se configurado, reconstrói os shards afetados.
+     */
+    @Scheduled(cron = "${app.estatisticas.verificacao-cron:0 0 3 * * *}")
+    public void verificarPeriodicamente() {
+        try {
+            for (Map.Entry<Integer, List<EstatisticaRegiaoService.Divergencia>> shard : verificar().entrySet()) {
+                if (shard.getValue().isEmpty()) {
+                    continue;
+                }
+                System.err.println("Contagem de clientes por região divergente no shard " + shard.getKey() + " ("
+                        + shard.getValue().size() + " regiões): " + shard.getValue());
+                if (reconstruirAutomaticamente) {
+                    int regioes = executarNosShards(List.of(shard.getKey()), estatisticaRegiaoService::reconstruir).get(shard.getKey());
+                    System.err.println("Contagem do shard " + shard.getKey() + " reconstruída (" + regioes + " regiões).");
+                }
+            }
+        } catch (DAOException e) {
+            System.err.println("Erro na verificação periódica da contagem de clientes por região: " + e.getMessage());
+        }
+    }
+
+    // Executa a operação em cada shard, em paralelo no shardExecutor (sem sharding, no único banco, na thread atual).
+    // Espera todos os shards terminarem antes de relançar o primeiro erro, para não deixar reconstruções pela metade sem aviso.
+    private <T> Map<Integer, T> executarNosShards(List<Integer> shards, ShardContext.OperacaoShard<T> operacao) throws DAOException {
+        Map<Integer, T> resultados = new TreeMap<>();
+        ExecutorService executor = shardExecutor.getIfAvailable();
+        if (executor == null) {
+            for (int shard : shards) {
+                resultados.put(shard, ShardContext.executar(shard, null, operacao));
+            }
+            return resultados;
+        }
+        Map<Integer, Future<T>> parciais = new LinkedHashMap<>();
+        for (int shard : shards) {
+            parciais.put(shard, executor.submit(() -> ShardContext.executar(shard, null, operacao)));
+        }
+        DAOException erro = null;
+        for (Map.Entry<Integer, Future<T>> parcial : parciais.entrySet()) {
+            try {
+                resultados.put(parcial.getKey(), parcial.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DAOException("Manutenção da contagem por região interrompida.", e);
+            } catch (ExecutionException e) {
+                if (erro == null) {
+                    erro = e.getCause() instanceof DAOException daoException ? daoException
+                            : new DAOException("Erro na manutenção da contagem por região do shard " + parcial.getKey() + ".", e.getCause());
+                }
+            }
+        }
+        if (erro != null) {
+            throw erro;
+        }
+        return resultados;
+    }
+
+    private List<Integer> todosOsShards() {
+        ShardMap mapa = shardMap.getIfAvailable();
+        int quantidade = mapa == null ? 1 : mapa.getQuantidadeShards();
+        return IntStream.range(0, quantidade).boxed().toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.alexviana.alexvianaprojeto.service;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.domain.EstatisticaRegiao;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.sharding.ShardContext;
+import com.alexviana.alexvianaprojeto.sharding.ShardKey;
+import com.alexviana.alexvianaprojeto.sharding.ShardMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * @author Alex Viana
+ * Serviço de clientes com sharding por hash do CPF, ativo com {@code app.sharding.enabled=true}.
+ * Define o shard de cada operação e delega ao {@link ClienteService}, que continua com as regras de negócio
+ * e as transações (abertas já no shard correto). Operações por ID ou CPF vão direto ao shard do bucket;
+ * {@code buscarTodos}, {@code filtrarClientes} e {@code contarPorRegiao} consultam todos os shards em paralelo
+ * e juntam os resultados (a contagem por região soma as contagens de cada shard). Cada shard só contribui com os
+ * clientes dos buckets que são dele no {@link ShardMap}: durante (e logo depois de) um movimento de bucket, as linhas
+ * que também estão no outro shard não aparecem duas vezes.
+ * Como o CPF define o shard, a unicidade do CPF continua garantida pela constraint de cada shard.
+ */
+@Service
+@Primary // Controladores e beans JSF recebem esta implementação quando o sharding está ativo
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardedClienteService implements IClienteService {
+
+    private final ClienteService clienteService;
+    private final ShardMap shardMap;
+    private final ExecutorService shardExecutor;
+
+    // Até o fim da inicialização do contexto as consultas rodam na thread chamadora: beans criados na subida
+    // (ex: ClienteBean) chamam buscarTodos segurando o lock de singletons do Spring, que as threads do pool
+    // também precisariam para resolver o gerenciador de transações.
+    private volatile boolean contextoInicializado;
+
+    @Autowired
+    public ShardedClienteService(ClienteService clienteService, ShardMap shardMap,
+                                 @Qualifier("shardExecutor") ExecutorService shardExecutor) {
+        this.clienteService = clienteService;
+        this.shardMap = shardMap;
+        this.shardExecutor = shardExecutor;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void aoInicializarContexto() {
+        contextoInicializado = true;
+    }
+
+    @Override
+    public Cliente cadastrar(Cliente cliente) throws DAOException {
+        if (cliente == null || cliente.getCpf() == null) {
+            throw new DAOException("Dados do cliente ou CPF não podem ser nulos para cadastro.");
+        }
+        return escreverNoBucket(ShardKey.bucketDoCpf(cliente.getCpf()), () -> clienteService.cadastrar(cliente));
+    }
+
+    @Override
+    public Cliente alterar(Cliente cliente) throws DAOException {
+        if (cliente == null || cliente.getId() == null) {
+            throw new DAOException("Erro ao alterar: Entidade ou ID da entidade não podem ser nulos.");
+        }
+        int bucket = ShardKey.bucketDoId(cliente.getId());
+        if (cliente.getCpf() != null && ShardKey.bucketDoCpf(cliente.getCpf()) != bucket) {
+            throw new DAOException("Erro ao alterar: com sharding ativo, o CPF só pode ser alterado para outro CPF do mesmo bucket. "
+                    + "Exclua e cadastre o cliente novamente.");
+        }
+        return escreverNoBucket(bucket, () -> clienteService.alterar(cliente));
+    }
+
+    @Override
+    public void excluir(Cliente cliente) throws DAOException {
+        if (cliente == null || cliente.getId() == null) {
+            throw new DAOException("Erro ao excluir: Entidade ou ID da entidade não podem ser nulos.");
+        }
+        escreverNoBucket(ShardKey.bucketDoId(cliente.getId()), () -> {
+            clienteService.excluir(cliente);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Cliente> consultar(Long id) throws DAOException {
+        if (id == null) {
+            throw new DAOException("Erro ao consultar: O ID não pode ser nulo.");
+        }
+        int bucket = ShardKey.bucketDoId(id);
+        return ShardContext.executar(shardMap.shardDoBucket(bucket), bucket, () -> clienteService.consultar(id));
+    }
+
+    @Override
+    public Optional<Cliente> buscarPorCPF(Long cpf) throws DAOException {
+        if (cpf == null) {
+            throw new DAOException("O CPF para busca não pode ser nulo.");
+        }
+        int bucket = ShardKey.bucketDoCpf(cpf);
+        return ShardContext.executar(shardMap.shardDoBucket(bucket), bucket, () -> clienteService.buscarPorCPF(cpf));
+    }
+
+    @Override
+    public Collection<Cliente> buscarTodos() throws DAOException {
+        return reunirDeTodosOsShards(shard -> dosBucketsDoShard(shard, clienteService.buscarTodos()));
+    }
+
+    @Override
+    public List<Cliente> filtrarClientes(String query) {
+        try {
+            return reunirDeTodosOsShards(shard -> dosBucketsDoShard(shard, clienteService.filtrarClientes(query)));
+        } catch (DAOException e) {
+            // filtrarClientes não declara DAOException no contrato; a falha de um shard é propagada sem checagem.
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<EstatisticaRegiao> contarPorRegiao() throws DAOException {
+        Map<EstatisticaRegiao.Regiao, Long> soma = new TreeMap<>(
+                Comparator.comparing(EstatisticaRegiao.Regiao::getEstado).thenComparing(EstatisticaRegiao.Regiao::getCidade));
+        List<EstatisticaRegiao> parciais = reunirDeTodosOsShards(shard ->
+                clienteService.contarPorRegiaoSemBuckets(ShardKey.TOTAL_BUCKETS, shardMap.bucketsAlheios(shard)));
+        for (EstatisticaRegiao parcial : parciais) {
+            soma.merge(new EstatisticaRegiao.Regiao(parcial.getEstado(), parcial.getCidade()), parcial.getQuantidade(), Long::sum);
+        }
+        List<EstatisticaRegiao> regioes = new ArrayList<>(soma.size());
+        soma.forEach((regiao, quantidade) -> regioes.add(new EstatisticaRegiao(regiao.getEstado(), regiao.getCidade(), quantidade)));
+        return regioes;
+    }
+
+    // Executa uma escrita no shard do bucket, recusando-a enquanto o bucket estiver sendo movido pelo rebalanceamento.
+    // A reserva do bucket vale até o commit (a transação termina dentro da operação), então a migração
+    // espera esta escrita antes de copiar as linhas e o shard do bucket não muda no meio dela.
+    private <T> T escreverNoBucket(int bucket, ShardContext.OperacaoShard<T> operacao) throws DAOException {
+        if (!shardMap.iniciarEscrita(bucket)) {
+            throw new DAOException("Os dados deste cliente estão sendo movidos entre shards. Tente novamente em instantes.");
+        }
+        try {
+            return ShardContext.executar(shardMap.shardDoBucket(bucket), bucket, operacao);
+        } finally {
+            shardMap.terminarEscrita(bucket);
+        }
+    }
+
+    // Linhas de buckets que não são do shard são cópias de um movimento em andamento ou sobras da origem
+    private List<Cliente> dosBucketsDoShard(int shard, Collection<Cliente> clientes) {
+        List<Cliente> doShard = new ArrayList<>(clientes.size());
+        for (Cliente cliente : clientes) {
+            if (shardMap.pertenceAoShard(cliente.getId(), shard)) {
+                doShard.add(cliente);
+            }
+        }
+        return doShard;
+    }
+
+    /**
+     * Consulta executada em um shard pelo scatter-gather.
+     * @param <R> O tipo do resultado parcial.
+     */
+    @FunctionalInterface
+    private interface ConsultaShard<R> {
+        R executar(int shard) throws DAOException;
+    }
+
+    // Scatter-gather: executa a consulta em todos os shards em paralelo e junta os resultados
+    private <E> List<E> reunirDeTodosOsShards(ConsultaShard<? extends Collection<E>> consulta) throws DAOException {
+        if (!contextoInicializado) {
+            List<E> resultados = new ArrayList<>();
+            for (int i = 0; i < shardMap.getQuantidadeShards(); i++) {
+                int shard = i;
+                resultados.addAll(ShardContext.executar(shard, null, () -> consulta.executar(shard)));
+            }
+            return resultados;
+        }
+        List<Future<? extends Collection<E>>> parciais = new ArrayList<>();
+        for (int i = 0; i < shardMap.getQuantidadeShards(); i++) {
+            int shard = i;
+            parciais.add(shardExecutor.submit(() -> ShardContext.executar(shard, null, () -> consulta.executar(shard))));
+        }
+        List<E> resultados = new ArrayList<>();
+        try {
+            for (Future<? extends Collection<E>> parcial : parciais) {
+                resultados.addAll(parcial.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parciais.forEach(parcial -> parcial.cancel(true));
+            throw new DAOException("Consulta aos shards interrompida.", e);
+        } catch (ExecutionException e) {
+            parciais.forEach(parcial -> parcial.cancel(true));
+            if (e.getCause() instanceof DAOException daoException) {
+                throw daoException;
+            }
+            throw new DAOException("Erro inesperado ao consultar os shards.", e.getCause());
+        }
+        return resultados;
+    }
+}
\ No newline at end of file
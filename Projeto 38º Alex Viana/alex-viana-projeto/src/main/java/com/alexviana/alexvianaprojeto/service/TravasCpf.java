@@ -0,0 +1,206 @@
+package com.alexviana.alexvianaprojeto.service;
+
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author Alex Viana
+ * Travas por CPF para o cadastro de clientes: o {@link ClienteService} trava o CPF antes de abrir a transação que
+ * verifica se ele já existe, e só solta depois do commit ou rollback. Cadastros simultâneos do mesmo CPF passam a ser
+ * feitos um de cada vez (o segundo encontra o primeiro já confirmado e é recusado na verificação, sem chegar à
+ * constraint do banco), enquanto CPFs diferentes seguem em paralelo. Como a espera acontece antes da transação,
+ * quem espera não segura conexão do pool: muitos cadastros do mesmo CPF não deixam os outros CPFs sem conexão.
+ * <p>
+ * As travas são um conjunto fixo de {@link ReentrantLock}s ({@code app.cpf-lock.listras}) escolhido pelo hash do CPF:
+ * a memória não cresce com a quantidade de CPFs, e dois CPFs só disputam a mesma trava se caírem na mesma listra.
+ * A espera é limitada por {@code app.cpf-lock.timeout}; depois disso o cadastro falha com {@link DAOException}.
+ * Com {@code app.cpf-lock.advisory=true} e PostgreSQL, o CPF também é travado no banco dentro da transação
+ * ({@code pg_try_advisory_xact_lock}, por {@link #travarNoBanco}), para valer entre vários nós da aplicação.
+ */
+@Component
+public class TravasCpf {
+
+    // Primeiro argumento das advisory locks de CPF, para não colidir com outras advisory locks do mesmo banco
+    private static final int CLASSE_ADVISORY = 0x43504600; // "CPF\0"
+    private static final long PAUSA_ADVISORY_MAXIMA_MS = 50;
+
+    private final boolean habilitado;
+    private final ReentrantLock[] travas;
+    private final long esperaMaximaNanos;
+    private final boolean advisory;
+
+    private final LongAdder aquisicoes = new LongAdder();
+    private final LongAdder esperas = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgreSQL;
+
+    /**
+     * Situação das travas, exposta no endpoint administrativo.
+     * @param listras Quantidade de travas.
+     * @param emUso Travas ocupadas no momento.
+     * @param aquisicoes Travas obtidas.
+     * @param esperas Aquisições que encontraram a trava ocupada e esperaram.
+     * @param timeouts Cadastros recusados por esperar mais que o limite.
+     * @param advisory Se a advisory lock do PostgreSQL está ativa.
+     */
+    public record Estatisticas(int listras, int emUso, long aquisicoes, long esperas, long timeouts, boolean advisory) {
+    }
+
+    @Autowired
+    public TravasCpf(@Value("${app.cpf-lock.enabled:true}") boolean habilitado,
+                     @Value("${app.cpf-lock.listras:1024}") int listras,
+                     @Value("${app.cpf-lock.timeout:2s}") Duration esperaMaxima,
+                     @Value("${app.cpf-lock.advisory:false}") boolean advisory) {
+        this.habilitado = habilitado;
+        // Potência de 2, para escolher a listra com uma máscara
+        this.travas = new ReentrantLock[Integer.highestOneBit(Math.max(1, listras - 1)) << 1];
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new ReentrantLock();
+        }
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.advisory = advisory;
+    }
+
+    /**
+     * Operação executada com o CPF travado.
+     * @param <T> O tipo do retorno da operação.
+     */
+    @FunctionalInterface
+    public interface OperacaoTravada<T> {
+        T executar() throws DAOException;
+    }
+
+    /**
+     * Executa a operação com o CPF travado. Deve ser chamado antes de abrir a transação, que começa e termina dentro
+     * da operação. Se já houver uma transação ativa, a trava fica até o fim dela, para não ser solta antes do commit.
+     * @param cpf O CPF a ser travado.
+     * @param operacao A operação, que abre a própria transação.
+     * @return O resultado da operação.
+     * @throws DAOException Se a trava não for obtida dentro do tempo limite ou se a operação falhar.
+     */
+    public <T> T executarComCpfTravado(long cpf, OperacaoTravada<T> operacao) throws DAOException {
+        if (!habilitado) {
+            return operacao.executar();
+        }
+        ReentrantLock trava = travas[listra(cpf)];
+        adquirir(trava, cpf);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    trava.unlock();
+                }
+            });
+            return operacao.executar();
+        }
+        try {
+            return operacao.executar();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Trava o CPF no banco até o fim da transação atual, quando {@code app.cpf-lock.advisory} estiver ativo e o banco
+     * for PostgreSQL. Sem efeito nos outros casos.
+     * @param cpf O CPF a ser travado.
+     * @throws DAOException Se a trava não for obtida dentro do tempo limite.
+     * @throws IllegalStateException Se não houver transação ativa.
+     */
+    public void travarNoBanco(long cpf) throws DAOException {
+        if (!habilitado || !advisory) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A trava de CPF no banco exige uma transação ativa.");
+        }
+        if (isPostgreSQL()) {
+            travarNoBanco(cpf, System.nanoTime() + esperaMaximaNanos);
+        }
+    }
+
+    public Estatisticas estatisticas() {
+        int emUso = 0;
+        for (ReentrantLock trava : travas) {
+            if (trava.isLocked()) {
+                emUso++;
+            }
+        }
+        return new Estatisticas(travas.length, emUso, aquisicoes.sum(), esperas.sum(), timeouts.sum(), advisory);
+    }
+
+    private void adquirir(ReentrantLock trava, long cpf) throws DAOException {
+        if (!trava.tryLock()) {
+            esperas.increment();
+            try {
+                if (!trava.tryLock(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+                    timeouts.increment();
+                    throw new DAOException("Outro cadastro com o CPF '" + cpf + "' está em andamento. Tente novamente em instantes.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DAOException("Cadastro interrompido enquanto aguardava o CPF '" + cpf + "'.", e);
+            }
+        }
+        aquisicoes.increment();
+    }
+
+    // Advisory lock de transação (liberada pelo próprio banco no commit ou rollback), tentada até o prazo:
+    // pg_advisory_xact_lock esperaria sem limite
+    private void travarNoBanco(long cpf, long prazoNanos) throws DAOException {
+        long pausa = 1;
+        while (true) {
+            Boolean obtida = (Boolean) entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(:classe, :chave)")
+                    .setParameter("classe", CLASSE_ADVISORY)
+                    .setParameter("chave", Long.hashCode(cpf))
+                    .getSingleResult();
+            if (Boolean.TRUE.equals(obtida)) {
+                return;
+            }
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pausa) > prazoNanos) {
+                timeouts.increment();
+                throw new DAOException("Outro cadastro com o CPF '" + cpf + "' está em andamento em outro nó. Tente novamente em instantes.");
+            }
+            try {
+                Thread.sleep(pausa);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DAOException("Cadastro interrompido enquanto aguardava o CPF '" + cpf + "'.", e);
+            }
+            pausa = Math.min(PAUSA_ADVISORY_MAXIMA_MS, pausa * 2);
+        }
+    }
+
+    // Visível no pacote para os testes escolherem CPFs de listras diferentes
+    int listra(long cpf) {
+        // CPFs sequenciais se espalham pelas listras
+        long h = cpf * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (travas.length - 1);
+    }
+
+    private boolean isPostgreSQL() {
+        Boolean resultado = postgreSQL;
+        if (resultado == null) {
+            resultado = entityManager.unwrap(Session.class).doReturningWork(conexao ->
+                    conexao.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql"));
+            postgreSQL = resultado;
+        }
+        return resultado;
+    }
+}
\ No newline at end of file
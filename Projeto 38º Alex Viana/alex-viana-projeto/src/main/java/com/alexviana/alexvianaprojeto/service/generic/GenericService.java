@@ -2,18 +2,31 @@ package com.alexviana.alexvianaprojeto.service.generic;
 
 import com.alexviana.alexvianaprojeto.domain.Persistente;
 import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.jfr.OperacaoServicoEvent;
+import com.alexviana.alexvianaprojeto.sharding.ShardContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 /**
  * @author Alex Viana
  * Implementação abstrata e genérica de um serviço para operações CRUD.
  * Esta classe fornece a lógica básica de persistência que pode ser estendida
  * por serviços específicos para cada entidade.
+ * Cada operação emite um {@link OperacaoServicoEvent} para o Java Flight Recorder.
+ * Leituras simultâneas com a mesma chave são coalescidas em uma única consulta ({@link SingleFlight}); cada escrita
+ * confirmada encerra a coalescência com as consultas já em andamento.
  *
  * @param <T> O tipo da entidade persistente.
  * @param <E> O tipo do identificador (ID) da entidade.
@@ -22,12 +35,50 @@ public abstract class GenericService<T extends Persistente, E extends Serializab
 
     protected JpaRepository<T, E> repository;
 
+    /**
+     * Nome simples da entidade (ex: Cliente), usado nos eventos do JFR.
+     */
+    protected final String entidade;
+
+    /**
+     * Consultas em andamento, para coalescer leituras simultâneas idênticas.
+     */
+    protected final SingleFlight<ChaveLeitura> leiturasEmAndamento = new SingleFlight<>();
+
+    // Incrementada após o commit de cada escrita: faz parte da chave das leituras coalescidas
+    private final AtomicLong geracaoEscrita = new AtomicLong();
+
+    private boolean coalescerLeituras = true;
+    private Duration esperaMaximaCoalescida = Duration.ofSeconds(2);
+
+    /**
+     * Chave de uma leitura coalescida. O shard faz parte da chave porque o scatter-gather consulta o mesmo filtro
+     * em todos os shards ao mesmo tempo. A geração de escrita separa as leituras iniciadas depois do commit de uma
+     * escrita das consultas que já estavam em andamento, que podem ter lido a versão anterior.
+     */
+    protected record ChaveLeitura(String operacao, Object valor, Integer shard, long geracaoEscrita) {
+    }
+
     /**
      * Construtor do serviço genérico.
      * @param repository O repositório JPA que será utilizado para as operações de persistência.
      */
     public GenericService(JpaRepository<T, E> repository) {
         this.repository = repository;
+        Class<?>[] tipos = GenericTypeResolver.resolveTypeArguments(getClass(), GenericService.class);
+        this.entidade = tipos != null ? tipos[0].getSimpleName() : "Persistente";
+    }
+
+    /**
+     * Configura a coalescência de leituras simultâneas (injetado pelo Spring).
+     * @param habilitado {@code app.coalescing.enabled}: false faz cada chamada ir ao banco.
+     * @param esperaMaxima {@code app.coalescing.timeout}: quanto uma chamada coalescida espera pela consulta em andamento.
+     */
+    @Autowired
+    public void configurarCoalescencia(@Value("${app.coalescing.enabled:true}") boolean habilitado,
+                                       @Value("${app.coalescing.timeout:2s}") Duration esperaMaxima) {
+        this.coalescerLeituras = habilitado;
+        this.esperaMaximaCoalescida = esperaMaxima;
     }
 
     @Override
@@ -36,16 +87,24 @@ public abstract class GenericService<T extends Persistente, E extends Serializab
         if (entity == null) {
             throw new DAOException("Erro ao cadastrar: Entidade não pode ser nula.");
         }
-        // Validação se já existe uma entidade com o mesmo ID.
-        // Em um cenário real, o ID é geralmente gerado pelo banco para novas entidades.
-        // Se a entidade já tiver um ID, é mais provável que seja uma tentativa de alteração.
-        if (entity.getId() != null && repository.existsById((E) entity.getId())) {
-            throw new DAOException("Erro ao cadastrar: Entidade com ID " + entity.getId() + " já existe no sistema.");
-        }
+        OperacaoServicoEvent evento = iniciarEvento("cadastrar", entity.getId());
         try {
-            return repository.save(entity);
-        } catch (Exception e) {
-            throw new DAOException("Erro inesperado ao cadastrar a entidade.", e);
+            // Validação se já existe uma entidade com o mesmo ID.
+            // Em um cenário real, o ID é geralmente gerado pelo banco para novas entidades.
+            // Se a entidade já tiver um ID, é mais provável que seja uma tentativa de alteração.
+            if (entity.getId() != null && repository.existsById((E) entity.getId())) {
+                throw new DAOException("Erro ao cadastrar: Entidade com ID " + entity.getId() + " já existe no sistema.");
+            }
+            try {
+                T salvo = repository.save(entity);
+                evento.registrarResultado(1);
+                encerrarCoalescenciaAposCommit();
+                return salvo;
+            } catch (Exception e) {
+                throw new DAOException("Erro inesperado ao cadastrar a entidade.", e);
+            }
+        } finally {
+            evento.concluir();
         }
     }
 
@@ -55,14 +114,21 @@ public abstract class GenericService<T extends Persistente, E extends Serializab
         if (entity == null || entity.getId() == null) {
             throw new DAOException("Erro ao excluir: Entidade ou ID da entidade não podem ser nulos.");
         }
-        // Verifica se a entidade realmente existe antes de tentar excluir.
-        if (!repository.existsById((E) entity.getId())) {
-            throw new DAOException("Erro ao excluir: Entidade com ID " + entity.getId() + " não encontrada.");
-        }
+        OperacaoServicoEvent evento = iniciarEvento("excluir", entity.getId());
         try {
-            repository.delete(entity);
-        } catch (Exception e) {
-            throw new DAOException("Erro inesperado ao excluir a entidade com ID " + entity.getId(), e);
+            // Verifica se a entidade realmente existe antes de tentar excluir.
+            if (!repository.existsById((E) entity.getId())) {
+                throw new DAOException("Erro ao excluir: Entidade com ID " + entity.getId() + " não encontrada.");
+            }
+            try {
+                repository.delete(entity);
+                evento.registrarResultado(1);
+                encerrarCoalescenciaAposCommit();
+            } catch (Exception e) {
+                throw new DAOException("Erro inesperado ao excluir a entidade com ID " + entity.getId(), e);
+            }
+        } finally {
+            evento.concluir();
         }
     }
 
@@ -72,14 +138,22 @@ public abstract class GenericService<T extends Persistente, E extends Serializab
         if (entity == null || entity.getId() == null) {
             throw new DAOException("Erro ao alterar: Entidade ou ID da entidade não podem ser nulos.");
         }
-        // Verifica se a entidade existe para ser alterada.
-        if (!repository.existsById((E) entity.getId())) {
-            throw new DAOException("Erro ao alterar: Entidade com ID " + entity.getId() + " não encontrada para atualização.");
-        }
+        OperacaoServicoEvent evento = iniciarEvento("alterar", entity.getId());
         try {
-            return repository.save(entity); // save() funciona como update se o ID já existe
-        } catch (Exception e) {
-            throw new DAOException("Erro inesperado ao alterar a entidade com ID " + entity.getId(), e);
+            // Verifica se a entidade existe para ser alterada.
+            if (!repository.existsById((E) entity.getId())) {
+                throw new DAOException("Erro ao alterar: Entidade com ID " + entity.getId() + " não encontrada para atualização.");
+            }
+            try {
+                T salvo = repository.save(entity); // save() funciona como update se o ID já existe
+                evento.registrarResultado(1);
+                encerrarCoalescenciaAposCommit();
+                return salvo;
+            } catch (Exception e) {
+                throw new DAOException("Erro inesperado ao alterar a entidade com ID " + entity.getId(), e);
+            }
+        } finally {
+            evento.concluir();
         }
     }
 
@@ -88,19 +162,94 @@ public abstract class GenericService<T extends Persistente, E extends Serializab
         if (valor == null) {
             throw new DAOException("Erro ao consultar: O ID não pode ser nulo.");
         }
+        OperacaoServicoEvent evento = iniciarEvento("consultar", valor);
         try {
-            return repository.findById(valor);
+            Optional<T> resultado = coalescer("consultar", valor, () -> repository.findById(valor),
+                    encontrado -> encontrado.map(this::copiar));
+            evento.registrarResultado(resultado.isPresent() ? 1 : 0);
+            return resultado;
+        } catch (DAOException e) {
+            throw e;
         } catch (Exception e) {
             throw new DAOException("Erro inesperado ao consultar registro com ID: " + valor, e);
+        } finally {
+            evento.concluir();
         }
     }
 
     @Override
     public Collection<T> buscarTodos() throws DAOException {
+        OperacaoServicoEvent evento = iniciarEvento("buscarTodos", null);
         try {
-            return repository.findAll();
+            Collection<T> resultado = repository.findAll();
+            evento.registrarResultado(resultado.size());
+            return resultado;
         } catch (Exception e) {
             throw new DAOException("Erro inesperado ao buscar todos os registros.", e);
+        } finally {
+            evento.concluir();
         }
     }
+
+    /**
+     * Executa uma leitura, coalescendo-a com uma leitura idêntica em andamento em outra thread.
+     * Dentro de uma transação a leitura é sempre própria: ela precisa enxergar as alterações ainda não confirmadas
+     * e devolver entidades gerenciadas pelo contexto de persistência da transação.
+     * @param operacao O nome da operação (parte da chave).
+     * @param valor O parâmetro da consulta (parte da chave).
+     * @param chamada A consulta.
+     * @param copiar Cria a cópia do resultado para as chamadas que aproveitaram a consulta de outra thread.
+     * @return O resultado da consulta.
+     * @throws DAOException Se a consulta falhar ou a espera pela consulta em andamento expirar.
+     */
+    protected <R> R coalescer(String operacao, Object valor, SingleFlight.Chamada<R> chamada, UnaryOperator<R> copiar) throws DAOException {
+        if (!coalescerLeituras || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return chamada.executar();
+        }
+        ChaveLeitura chave = new ChaveLeitura(operacao, valor, ShardContext.shardAtual(), geracaoEscrita.get());
+        return leiturasEmAndamento.executar(chave, esperaMaximaCoalescida, chamada, copiar);
+    }
+
+    /**
+     * Faz as leituras que começarem depois do commit da transação atual (ou já, fora de transação) não aproveitarem
+     * consultas em andamento, que podem ter começado antes da escrita e devolver a versão anterior.
+     * Como um filtro pode passar a incluir ou excluir qualquer registro alterado, vale para todas as leituras do serviço.
+     * Acontece antes de a escrita retornar ao chamador.
+     */
+    protected void encerrarCoalescenciaAposCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            geracaoEscrita.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                geracaoEscrita.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Cria uma cópia desligada da entidade, entregue às leituras coalescidas no lugar da instância da consulta líder.
+     * @param entity A entidade lida.
+     * @return Uma nova instância com os mesmos valores.
+     */
+    protected abstract T copiar(T entity);
+
+    /**
+     * @return Os contadores de leituras executadas, coalescidas e expiradas deste serviço.
+     */
+    public SingleFlight.Estatisticas estatisticasCoalescencia() {
+        return leiturasEmAndamento.estatisticas();
+    }
+
+    /**
+     * Inicia o evento JFR de uma operação deste serviço.
+     * @param operacao O nome da operação.
+     * @param chave O ID ou CPF envolvido, ou {@code null}.
+     * @return O evento iniciado; deve ser concluído em um bloco finally.
+     */
+    protected OperacaoServicoEvent iniciarEvento(String operacao, Object chave) {
+        return OperacaoServicoEvent.iniciar(entidade, operacao, chave);
+    }
 }
\ No newline at end of file
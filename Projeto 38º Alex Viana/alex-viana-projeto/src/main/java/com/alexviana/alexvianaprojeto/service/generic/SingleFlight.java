@@ -0,0 +1,159 @@
+package com.alexviana.alexvianaprojeto.service.generic;
+
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * @author Alex Viana
+ * Deduplicação de chamadas simultâneas ("single-flight"): enquanto uma consulta com determinada chave está em
+ * andamento, as chamadas seguintes com a mesma chave não vão ao banco; esperam o resultado da primeira (a "líder").
+ * <ul>
+ *     <li>A líder executa a consulta na própria thread e sempre remove a chave ao terminar, com sucesso ou erro.</li>
+ *     <li>Se a líder falhar, as que esperavam recebem a mesma exceção (DAOException, RuntimeException ou Error).</li>
+ *     <li>As que esperam têm um tempo máximo; ao expirar recebem DAOException e a líder continua normalmente.</li>
+ *     <li>As que esperam recebem cópias do resultado (a função {@code copiar}), feitas a partir de uma cópia
+ *     separada pela líder: uma alteração feita por um chamador em uma entidade não aparece para os outros.</li>
+ * </ul>
+ * Não há cache: uma chamada que chega depois que a líder terminou faz uma nova consulta. Quem guarda resultados
+ * (ex: o cache de respostas) pode saber se a thread recebeu o resultado de uma consulta iniciada por outra
+ * ({@link #recebeuResultadoCompartilhado()}): essa consulta pode ter começado antes de uma alteração que o chamador já viu.
+ *
+ * @param <K> O tipo da chave (deve implementar equals/hashCode).
+ */
+public final class SingleFlight<K> {
+
+    /**
+     * A consulta a ser executada pela chamada líder.
+     */
+    @FunctionalInterface
+    public interface Chamada<V> {
+        V executar() throws DAOException;
+    }
+
+    /**
+     * Contadores acumulados desde a inicialização.
+     * @param executadas Chamadas que foram ao banco (líderes).
+     * @param coalescidas Chamadas que aproveitaram uma consulta em andamento.
+     * @param timeouts Chamadas que desistiram de esperar pela líder.
+     * @param emAndamento Consultas em andamento neste momento.
+     */
+    public record Estatisticas(long executadas, long coalescidas, long timeouts, int emAndamento) {
+    }
+
+    /**
+     * Uma consulta em andamento. {@code seguidores} só é alterado dentro do compute do mapa (serializado por chave).
+     */
+    private static final class Voo {
+        final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        int seguidores;
+    }
+
+    // Marca, por thread, que uma chamada aproveitou a consulta de outra thread desde limparResultadoCompartilhado()
+    private static final ThreadLocal<Boolean> RESULTADO_COMPARTILHADO = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<K, Voo> emAndamento = new ConcurrentHashMap<>();
+    private final LongAdder executadas = new LongAdder();
+    private final LongAdder coalescidas = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Executa a chamada, ou aguarda a que já está em andamento com a mesma chave.
+     * @param chave A chave da consulta (inclua tudo que muda o resultado: operação, parâmetros, shard...).
+     * @param esperaMaxima Tempo máximo que uma chamada coalescida espera pela líder.
+     * @param chamada A consulta.
+     * @param copiar Cria a cópia do resultado entregue às chamadas coalescidas.
+     * @return O resultado da consulta.
+     * @throws DAOException Se a consulta falhar ou a espera pela líder expirar.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V executar(K chave, Duration esperaMaxima, Chamada<V> chamada, UnaryOperator<V> copiar) throws DAOException {
+        Voo novo = new Voo();
+        Voo voo = emAndamento.compute(chave, (k, atual) -> {
+            if (atual == null) {
+                return novo;
+            }
+            atual.seguidores++;
+            return atual;
+        });
+        if (voo == novo) {
+            return executarComoLider(chave, novo, chamada, copiar);
+        }
+        coalescidas.increment();
+        RESULTADO_COMPARTILHADO.set(Boolean.TRUE);
+        try {
+            return copiar.apply((V) voo.resultado.get(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new DAOException("Tempo esgotado (" + esperaMaxima.toMillis() + " ms) aguardando a consulta em andamento.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DAOException("Interrompido enquanto aguardava a consulta em andamento.", e);
+        } catch (ExecutionException e) {
+            throw relancar(e.getCause());
+        }
+    }
+
+    /**
+     * Reinicia a marca de {@link #recebeuResultadoCompartilhado()} na thread atual.
+     */
+    public static void limparResultadoCompartilhado() {
+        RESULTADO_COMPARTILHADO.remove();
+    }
+
+    /**
+     * @return {@code true} se, desde {@link #limparResultadoCompartilhado()}, alguma chamada nesta thread (de qualquer
+     * SingleFlight) recebeu o resultado ou o erro de uma consulta iniciada por outra thread.
+     */
+    public static boolean recebeuResultadoCompartilhado() {
+        return RESULTADO_COMPARTILHADO.get() != null;
+    }
+
+    /**
+     * @return Os contadores de chamadas executadas, coalescidas e expiradas.
+     */
+    public Estatisticas estatisticas() {
+        return new Estatisticas(executadas.sum(), coalescidas.sum(), timeouts.sum(), emAndamento.size());
+    }
+
+    private <V> V executarComoLider(K chave, Voo voo, Chamada<V> chamada, UnaryOperator<V> copiar) throws DAOException {
+        executadas.increment();
+        V resultado;
+        try {
+            resultado = chamada.executar();
+        } catch (Throwable t) {
+            emAndamento.remove(chave, voo);
+            voo.resultado.completeExceptionally(t);
+            throw t;
+        }
+        // Depois da remoção ninguém mais entra neste voo (novas chamadas fazem nova consulta) e o número de
+        // seguidores é definitivo. Eles copiam de uma cópia própria, nunca da instância devolvida à líder.
+        emAndamento.remove(chave, voo);
+        try {
+            voo.resultado.complete(voo.seguidores > 0 ? copiar.apply(resultado) : resultado);
+        } catch (RuntimeException e) {
+            voo.resultado.completeExceptionally(e);
+        }
+        return resultado;
+    }
+
+    private static DAOException relancar(Throwable causa) throws DAOException {
+        if (causa instanceof DAOException e) {
+            throw e;
+        }
+        if (causa instanceof RuntimeException e) {
+            throw e;
+        }
+        if (causa instanceof Error e) {
+            throw e;
+        }
+        return new DAOException("Erro na consulta em andamento.", causa);
+    }
+}
\ No newline at end of file
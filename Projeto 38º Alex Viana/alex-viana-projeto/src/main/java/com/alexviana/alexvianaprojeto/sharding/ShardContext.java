@@ -0,0 +1,71 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+
+/**
+ * @author Alex Viana
+ * Guarda, por thread, o shard e o bucket da operação em andamento.
+ * O {@link ShardRoutingDataSource} usa o shard para escolher a conexão e o {@link ShardIdGenerator}
+ * usa o bucket para compor o ID. O contexto precisa ser definido ANTES da abertura da transação,
+ * pois a conexão é obtida no início dela.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> BUCKET = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Operação executada dentro de um shard.
+     * @param <T> O tipo do retorno da operação.
+     */
+    @FunctionalInterface
+    public interface OperacaoShard<T> {
+        T executar() throws DAOException;
+    }
+
+    /**
+     * Executa uma operação com o shard e o bucket informados, restaurando o contexto anterior ao final.
+     * @param shard O índice do shard físico.
+     * @param bucket O bucket do registro, ou {@code null} para operações que não geram IDs (ex: consultas).
+     * @param operacao A operação a ser executada.
+     * @return O resultado da operação.
+     * @throws DAOException Se a operação lançar uma DAOException.
+     */
+    public static <T> T executar(int shard, Integer bucket, OperacaoShard<T> operacao) throws DAOException {
+        Integer shardAnterior = SHARD.get();
+        Integer bucketAnterior = BUCKET.get();
+        SHARD.set(shard);
+        BUCKET.set(bucket);
+        try {
+            return operacao.executar();
+        } finally {
+            restaurar(SHARD, shardAnterior);
+            restaurar(BUCKET, bucketAnterior);
+        }
+    }
+
+    /**
+     * @return O shard da operação em andamento, ou {@code null} fora de um contexto de shard.
+     */
+    public static Integer shardAtual() {
+        return SHARD.get();
+    }
+
+    /**
+     * @return O bucket da operação em andamento, ou {@code null} se não houver.
+     */
+    public static Integer bucketAtual() {
+        return BUCKET.get();
+    }
+
+    private static void restaurar(ThreadLocal<Integer> local, Integer valor) {
+        if (valor == null) {
+            local.remove();
+        } else {
+            local.set(valor);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * @author Alex Viana
+ * Gerador de IDs baseado na sequência do banco que embute o bucket do CPF nos bits menos significativos
+ * quando a operação roda em um {@link ShardContext}. Sem contexto (sharding desativado), devolve o valor
+ * da sequência sem alteração, mantendo os IDs já existentes.
+ */
+public class ShardIdGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        long sequencia = ((Number) super.generate(session, object)).longValue();
+        Integer bucket = ShardContext.bucketAtual();
+        return bucket == null ? sequencia : ShardKey.comporId(sequencia, bucket);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+/**
+ * @author Alex Viana
+ * Funções de particionamento (sharding) de clientes.
+ * O CPF é distribuído em {@link #TOTAL_BUCKETS} buckets lógicos por hash, e cada bucket pertence a um shard físico
+ * (ver {@link ShardMap}). O bucket também é gravado nos bits menos significativos do ID, o que permite
+ * rotear {@code consultar(id)} sem nenhuma consulta adicional: {@code id = (sequencia << BITS_BUCKET) | bucket}.
+ */
+public final class ShardKey {
+
+    /**
+     * Quantidade de bits do ID reservados para o bucket.
+     */
+    public static final int BITS_BUCKET = 10;
+
+    /**
+     * Quantidade de buckets lógicos (fixa: é ela que permite rebalancear sem alterar IDs).
+     */
+    public static final int TOTAL_BUCKETS = 1 << BITS_BUCKET;
+
+    private static final long MASCARA_BUCKET = TOTAL_BUCKETS - 1;
+
+    private ShardKey() {
+    }
+
+    /**
+     * Calcula o bucket de um CPF.
+     * @param cpf O CPF do cliente.
+     * @return O bucket, entre 0 e {@code TOTAL_BUCKETS - 1}.
+     */
+    public static int bucketDoCpf(long cpf) {
+        return (int) (misturar(cpf) & MASCARA_BUCKET);
+    }
+
+    /**
+     * Extrai o bucket gravado em um ID gerado com sharding ativo.
+     * @param id O ID do cliente.
+     * @return O bucket, entre 0 e {@code TOTAL_BUCKETS - 1}.
+     */
+    public static int bucketDoId(long id) {
+        return (int) (id & MASCARA_BUCKET);
+    }
+
+    /**
+     * Extrai o valor da sequência usado para gerar o ID.
+     * @param id O ID do cliente.
+     * @return O valor da sequência do shard.
+     */
+    public static long sequenciaDoId(long id) {
+        return id >>> BITS_BUCKET;
+    }
+
+    /**
+     * Compõe o ID a partir do valor da sequência do shard e do bucket do CPF.
+     * @param sequencia O próximo valor da sequência.
+     * @param bucket O bucket do CPF.
+     * @return O ID com o bucket embutido.
+     */
+    public static long comporId(long sequencia, int bucket) {
+        return (sequencia << BITS_BUCKET) | bucket;
+    }
+
+    // Finalizador do MurmurHash3: espalha CPFs sequenciais de forma uniforme entre os buckets
+    private static long misturar(long valor) {
+        long h = valor;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author Alex Viana
+ * Mapa de buckets lógicos para shards físicos.
+ * O mapa fica em memória para o roteamento (sem consulta por requisição) e é persistido na tabela
+ * TB_SHARD_BUCKET do shard 0. Na primeira subida, os buckets são distribuídos em rodízio entre os shards.
+ * Cada bucket tem uma trava de leitura/escrita: as escritas de clientes seguram a de leitura até o commit
+ * e a migração do bucket segura a de escrita, esperando as escritas em andamento terminarem antes da cópia.
+ * <p>
+ * O mapa também registra as remoções pendentes (tabela TB_SHARD_REMOCAO_PENDENTE): shards que podem ter linhas de um
+ * bucket que não é mais deles, como o destino durante a cópia ou a origem até a remoção depois da migração.
+ * As consultas em todos os shards descartam essas linhas ({@link #bucketsAlheios(int)}), e o {@link ShardRebalancer}
+ * termina as remoções que falharam.
+ */
+public class ShardMap {
+
+    private final JdbcTemplate catalogo;
+    private final int quantidadeShards;
+    private final AtomicIntegerArray buckets = new AtomicIntegerArray(ShardKey.TOTAL_BUCKETS);
+    private final Set<Integer> emMigracao = ConcurrentHashMap.newKeySet();
+    private final ReentrantReadWriteLock[] travas = new ReentrantReadWriteLock[ShardKey.TOTAL_BUCKETS];
+    // Shard -> buckets cujas linhas devem ser removidas dele, se ele não for o dono do bucket
+    private final Map<Integer, Set<Integer>> remocoesPendentes = new ConcurrentHashMap<>();
+
+    /**
+     * @param catalogo O DataSource onde o mapa é persistido (shard 0).
+     * @param quantidadeShards A quantidade de shards configurados.
+     */
+    public ShardMap(DataSource catalogo, int quantidadeShards) {
+        this.catalogo = new JdbcTemplate(catalogo);
+        this.quantidadeShards = quantidadeShards;
+        for (int bucket = 0; bucket < travas.length; bucket++) {
+            travas[bucket] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Carrega o mapa persistido, criando-o na primeira execução.
+     * @throws IllegalStateException Se algum bucket apontar para um shard que não está mais configurado.
+     */
+    public void carregar() {
+        catalogo.execute("CREATE TABLE IF NOT EXISTS TB_SHARD_BUCKET (BUCKET INTEGER PRIMARY KEY, SHARD INTEGER NOT NULL)");
+        catalogo.execute("CREATE TABLE IF NOT EXISTS TB_SHARD_REMOCAO_PENDENTE "
+                + "(BUCKET INTEGER NOT NULL, SHARD INTEGER NOT NULL, PRIMARY KEY (BUCKET, SHARD))");
+        for (Map<String, Object> pendente : catalogo.queryForList("SELECT BUCKET, SHARD FROM TB_SHARD_REMOCAO_PENDENTE")) {
+            int shard = ((Number) pendente.get("SHARD")).intValue();
+            if (shard < quantidadeShards) {
+                remocoesPendentes.computeIfAbsent(shard, s -> ConcurrentHashMap.newKeySet())
+                        .add(((Number) pendente.get("BUCKET")).intValue());
+            }
+        }
+        List<Map<String, Object>> linhas = catalogo.queryForList("SELECT BUCKET, SHARD FROM TB_SHARD_BUCKET");
+        if (linhas.isEmpty()) {
+            List<Object[]> inicial = new ArrayList<>();
+            for (int bucket = 0; bucket < ShardKey.TOTAL_BUCKETS; bucket++) {
+                int shard = bucket % quantidadeShards;
+                buckets.set(bucket, shard);
+                inicial.add(new Object[]{bucket, shard});
+            }
+            catalogo.batchUpdate("INSERT INTO TB_SHARD_BUCKET (BUCKET, SHARD) VALUES (?, ?)", inicial);
+            return;
+        }
+        for (Map<String, Object> linha : linhas) {
+            int bucket = ((Number) linha.get("BUCKET")).intValue();
+            int shard = ((Number) linha.get("SHARD")).intValue();
+            if (shard >= quantidadeShards) {
+                throw new IllegalStateException("O bucket " + bucket + " está no shard " + shard
+                        + ", mas apenas " + quantidadeShards + " shards estão configurados.");
+            }
+            buckets.set(bucket, shard);
+        }
+    }
+
+    /**
+     * @param bucket O bucket lógico.
+     * @return O shard físico que guarda o bucket.
+     */
+    public int shardDoBucket(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    /**
+     * @param id O ID do cliente.
+     * @param shard O shard consultado.
+     * @return {@code true} se o bucket do ID pertence ao shard.
+     */
+    public boolean pertenceAoShard(long id, int shard) {
+        return buckets.get(ShardKey.bucketDoId(id)) == shard;
+    }
+
+    /**
+     * Buckets com remoção pendente no shard que não pertencem a ele: as linhas desses buckets no shard são cópias
+     * (durante a migração) ou sobras (até a remoção na origem) e não devem aparecer nas consultas.
+     * @param shard O shard consultado.
+     * @return Os buckets alheios, vazio no caso comum.
+     */
+    public Set<Integer> bucketsAlheios(int shard) {
+        Set<Integer> pendentes = remocoesPendentes.get(shard);
+        if (pendentes == null || pendentes.isEmpty()) {
+            return Set.of();
+        }
+        Set<Integer> alheios = new HashSet<>();
+        for (int bucket : pendentes) {
+            if (buckets.get(bucket) != shard) {
+                alheios.add(bucket);
+            }
+        }
+        return alheios;
+    }
+
+    /**
+     * @return As remoções pendentes (shard -> buckets), incluindo as de buckets que voltaram a ser do shard.
+     */
+    public Map<Integer, Set<Integer>> remocoesPendentes() {
+        Map<Integer, Set<Integer>> copia = new HashMap<>();
+        remocoesPendentes.forEach((shard, pendentes) -> {
+            if (!pendentes.isEmpty()) {
+                copia.put(shard, Set.copyOf(pendentes));
+            }
+        });
+        return copia;
+    }
+
+    /**
+     * Registra (no catálogo e em memória) que as linhas do bucket no shard devem ser removidas se o shard não for o dono.
+     */
+    void registrarRemocaoPendente(int bucket, int shard) {
+        if (catalogo.queryForObject("SELECT COUNT(*) FROM TB_SHARD_REMOCAO_PENDENTE WHERE BUCKET = ? AND SHARD = ?",
+                Integer.class, bucket, shard) == 0) {
+            catalogo.update("INSERT INTO TB_SHARD_REMOCAO_PENDENTE (BUCKET, SHARD) VALUES (?, ?)", bucket, shard);
+        }
+        remocoesPendentes.computeIfAbsent(shard, s -> ConcurrentHashMap.newKeySet()).add(bucket);
+    }
+
+    /**
+     * Remove o registro de {@link #registrarRemocaoPendente(int, int)} depois que as linhas foram removidas
+     * (ou quando o shard voltou a ser o dono do bucket).
+     */
+    void concluirRemocaoPendente(int bucket, int shard) {
+        catalogo.update("DELETE FROM TB_SHARD_REMOCAO_PENDENTE WHERE BUCKET = ? AND SHARD = ?", bucket, shard);
+        Set<Integer> pendentes = remocoesPendentes.get(shard);
+        if (pendentes != null) {
+            pendentes.remove(bucket);
+        }
+    }
+
+    /**
+     * @return A quantidade de shards configurados.
+     */
+    public int getQuantidadeShards() {
+        return quantidadeShards;
+    }
+
+    /**
+     * @return A quantidade de buckets atribuída a cada shard (índice = shard).
+     */
+    public int[] bucketsPorShard() {
+        int[] contagem = new int[quantidadeShards];
+        for (int bucket = 0; bucket < ShardKey.TOTAL_BUCKETS; bucket++) {
+            contagem[buckets.get(bucket)]++;
+        }
+        return contagem;
+    }
+
+    /**
+     * Indica se o bucket está sendo movido entre shards (escritas devem ser recusadas até o fim da migração).
+     * @param bucket O bucket lógico.
+     * @return {@code true} se o bucket estiver em migração.
+     */
+    public boolean emMigracao(int bucket) {
+        return emMigracao.contains(bucket);
+    }
+
+    /**
+     * Reserva o bucket para uma escrita, até {@link #terminarEscrita(int)} (chamar após o commit).
+     * Não espera: se o bucket estiver em migração, a escrita é recusada.
+     * @param bucket O bucket lógico.
+     * @return {@code true} se a escrita pode prosseguir; nesse caso o shard do bucket não muda até o fim da escrita.
+     */
+    public boolean iniciarEscrita(int bucket) {
+        ReentrantReadWriteLock.ReadLock leitura = travas[bucket].readLock();
+        if (!leitura.tryLock()) {
+            return false;
+        }
+        // A marcação vem antes da trava de escrita da migração: conferida depois da trava, ela fecha a janela
+        // em que a migração já começou, mas ainda espera as escritas em andamento
+        if (emMigracao.contains(bucket)) {
+            leitura.unlock();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Libera o bucket reservado por {@link #iniciarEscrita(int)}.
+     */
+    public void terminarEscrita(int bucket) {
+        travas[bucket].readLock().unlock();
+    }
+
+    /**
+     * Marca o bucket em migração (novas escritas são recusadas) e espera as escritas em andamento terminarem.
+     * Deve ser seguido de {@link #liberarMigracao(int)}.
+     */
+    void iniciarMigracao(int bucket) {
+        emMigracao.add(bucket);
+        travas[bucket].writeLock().lock();
+    }
+
+    /**
+     * Libera a trava de escrita obtida em {@link #iniciarMigracao(int)}.
+     */
+    void liberarMigracao(int bucket) {
+        travas[bucket].writeLock().unlock();
+    }
+
+    void cancelarMigracao(int bucket) {
+        emMigracao.remove(bucket);
+    }
+
+    /**
+     * Aponta o bucket para o novo shard (persistindo a mudança) e libera as escritas.
+     */
+    void concluirMigracao(int bucket, int destino) {
+        catalogo.update("UPDATE TB_SHARD_BUCKET SET SHARD = ? WHERE BUCKET = ?", destino, bucket);
+        buckets.set(bucket, destino);
+        emMigracao.remove(bucket);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import com.alexviana.alexvianaprojeto.domain.EstatisticaRegiao;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.repository.EstatisticaRegiaoRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Alex Viana
+ * Ferramenta de resharding: move buckets inteiros de clientes entre shards.
+ * Como o bucket está embutido no ID, mover um bucket não altera nenhum ID; basta copiar as linhas,
+ * apontar o bucket para o novo shard no {@link ShardMap} e remover as linhas da origem.
+ * Durante a cópia, as escritas no bucket são recusadas (as leituras continuam na origem).
+ * A contagem de clientes por região (TB_ESTATISTICA_REGIAO) de cada shard acompanha as linhas: é somada no destino
+ * na transação da cópia e subtraída na origem na transação da remoção.
+ * Antes da cópia, o destino é registrado no {@link ShardMap} como remoção pendente, e a origem antes da troca do dono:
+ * até a remoção, as consultas em todos os shards ignoram as linhas do bucket no shard que não é o dono. Se a remoção
+ * falhar (ou a aplicação parar no meio), ela é concluída no próximo movimento ou rebalanceamento, ou na subida.
+ * Pensada para um único nó de aplicação; em vários nós, o mapa em memória dos demais precisa ser recarregado.
+ */
+public class ShardRebalancer {
+
+    private static final String TABELA = "TB_CLIENTE";
+
+    private final ShardRoutingDataSource dataSource;
+    private final ShardMap shardMap;
+
+    /**
+     * Movimento de um bucket entre shards.
+     * @param bucket O bucket movido.
+     * @param origem O shard de origem.
+     * @param destino O shard de destino.
+     * @param registros A quantidade de clientes copiados.
+     */
+    public record MovimentoBucket(int bucket, int origem, int destino, int registros) {
+    }
+
+    public ShardRebalancer(ShardRoutingDataSource dataSource, ShardMap shardMap) {
+        this.dataSource = dataSource;
+        this.shardMap = shardMap;
+    }
+
+    /**
+     * Redistribui os buckets em rodízio ({@code bucket % quantidadeShards}) entre os shards configurados.
+     * Usado após adicionar shards: ao dobrar a quantidade, apenas metade dos buckets é movida.
+     * @return Os movimentos realizados.
+     * @throws DAOException Se algum movimento falhar (os movimentos anteriores permanecem válidos).
+     */
+    public synchronized List<MovimentoBucket> rebalancear() throws DAOException {
+        concluirRemocoesPendentes();
+        List<MovimentoBucket> movimentos = new ArrayList<>();
+        for (int bucket = 0; bucket < ShardKey.TOTAL_BUCKETS; bucket++) {
+            int destino = bucket % shardMap.getQuantidadeShards();
+            if (shardMap.shardDoBucket(bucket) != destino) {
+                movimentos.add(moverBucket(bucket, destino));
+            }
+        }
+        return movimentos;
+    }
+
+    /**
+     * Move um bucket para outro shard.
+     * @param bucket O bucket a ser movido.
+     * @param destino O shard de destino.
+     * @return O movimento realizado.
+     * @throws DAOException Se o bucket ou o destino forem inválidos, ou se a cópia falhar.
+     */
+    public synchronized MovimentoBucket moverBucket(int bucket, int destino) throws DAOException {
+        if (bucket < 0 || bucket >= ShardKey.TOTAL_BUCKETS) {
+            throw new DAOException("Bucket inválido: " + bucket);
+        }
+        if (destino < 0 || destino >= shardMap.getQuantidadeShards()) {
+            throw new DAOException("Shard de destino inválido: " + destino);
+        }
+        concluirRemocoesPendentes();
+        int origem = shardMap.shardDoBucket(bucket);
+        if (origem == destino) {
+            return new MovimentoBucket(bucket, origem, destino, 0);
+        }
+
+        // Recusa novas escritas no bucket e espera as que já estão em andamento: o SELECT abaixo vê tudo o que foi confirmado
+        shardMap.iniciarMigracao(bucket);
+        List<Map<String, Object>> linhas;
+        try {
+            JdbcTemplate jdbcOrigem = new JdbcTemplate(dataSource.getShard(origem));
+            JdbcTemplate jdbcDestino = new JdbcTemplate(dataSource.getShard(destino));
+            linhas = jdbcOrigem.queryForList(
+                    "SELECT * FROM " + TABELA + " WHERE MOD(ID, " + ShardKey.TOTAL_BUCKETS + ") = ?", bucket);
+            Map<EstatisticaRegiao.Regiao, Long> porRegiao = contarPorRegiao(linhas);
+
+            // Se a cópia for confirmada e a troca do dono não, as linhas copiadas ficam marcadas para remoção no destino
+            shardMap.registrarRemocaoPendente(bucket, destino);
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource.getShard(destino))).executeWithoutResult(status -> {
+                long maiorSequencia = 0;
+                for (Map<String, Object> linha : linhas) {
+                    inserir(jdbcDestino, linha);
+                    maiorSequencia = Math.max(maiorSequencia, ShardKey.sequenciaDoId(((Number) linha.get("ID")).longValue()));
+                }
+                ajustarSequencia(jdbcDestino, maiorSequencia);
+                ajustarContagem(jdbcDestino, porRegiao, 1);
+            });
+
+            shardMap.registrarRemocaoPendente(bucket, origem);
+            shardMap.concluirMigracao(bucket, destino);
+            shardMap.concluirRemocaoPendente(bucket, destino);
+        } catch (DataAccessException e) {
+            throw new DAOException("Erro ao mover o bucket " + bucket + " do shard " + origem + " para o shard " + destino, e);
+        } finally {
+            shardMap.liberarMigracao(bucket);
+            shardMap.cancelarMigracao(bucket);
+        }
+
+        try {
+            removerLinhasAlheias(bucket, origem);
+        } catch (DataAccessException e) {
+            throw new DAOException("O bucket " + bucket + " foi movido para o shard " + destino + ", mas as linhas não foram "
+                    + "removidas do shard " + origem + ". A remoção fica pendente e é concluída no próximo movimento ou rebalanceamento.", e);
+        }
+        return new MovimentoBucket(bucket, origem, destino, linhas.size());
+    }
+
+    /**
+     * Conclui as remoções pendentes registradas no {@link ShardMap}: remove as linhas de cada bucket do shard que não
+     * é o dono, com a contagem por região correspondente.
+     * @throws DAOException Se alguma remoção falhar (ela continua pendente).
+     */
+    public synchronized void concluirRemocoesPendentes() throws DAOException {
+        for (Map.Entry<Integer, Set<Integer>> pendentes : shardMap.remocoesPendentes().entrySet()) {
+            int shard = pendentes.getKey();
+            for (int bucket : pendentes.getValue()) {
+                try {
+                    removerLinhasAlheias(bucket, shard);
+                } catch (DataAccessException e) {
+                    throw new DAOException("Erro ao remover as linhas do bucket " + bucket + " do shard " + shard, e);
+                }
+            }
+        }
+    }
+
+    // Remove do shard as linhas do bucket, se o shard não for o dono, e encerra a remoção pendente.
+    // A contagem por região é calculada com as linhas removidas, na mesma transação: repetir a remoção não altera nada
+    private void removerLinhasAlheias(int bucket, int shard) {
+        if (shardMap.shardDoBucket(bucket) != shard) {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource.getShard(shard));
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource.getShard(shard))).executeWithoutResult(status -> {
+                List<Map<String, Object>> linhas = jdbc.queryForList("SELECT ESTADO, CIDADE FROM " + TABELA
+                        + " WHERE MOD(ID, " + ShardKey.TOTAL_BUCKETS + ") = ?", bucket);
+                jdbc.update("DELETE FROM " + TABELA + " WHERE MOD(ID, " + ShardKey.TOTAL_BUCKETS + ") = ?", bucket);
+                ajustarContagem(jdbc, contarPorRegiao(linhas), -1);
+            });
+        }
+        shardMap.concluirRemocaoPendente(bucket, shard);
+    }
+
+    private void inserir(JdbcTemplate jdbc, Map<String, Object> linha) {
+        List<String> colunas = new ArrayList<>(linha.keySet());
+        String sql = "INSERT INTO " + TABELA + " (" + String.join(", ", colunas) + ") VALUES ("
+                + String.join(", ", colunas.stream().map(c -> "?").toList()) + ")";
+        jdbc.update(sql, colunas.stream().map(linha::get).toArray());
+    }
+
+    private Map<EstatisticaRegiao.Regiao, Long> contarPorRegiao(List<Map<String, Object>> linhas) {
+        Map<EstatisticaRegiao.Regiao, Long> porRegiao = new HashMap<>();
+        for (Map<String, Object> linha : linhas) {
+            porRegiao.merge(EstatisticaRegiao.Regiao.de((String) linha.get("ESTADO"), (String) linha.get("CIDADE")), 1L, Long::sum);
+        }
+        return porRegiao;
+    }
+
+    // Mesmos comandos do EstatisticaRegiaoService.ajustar, com a quantidade de clientes movidos de cada região
+    private void ajustarContagem(JdbcTemplate jdbc, Map<EstatisticaRegiao.Regiao, Long> porRegiao, int sinal) {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbc);
+        porRegiao.forEach((regiao, quantidade) -> {
+            MapSqlParameterSource parametros = new MapSqlParameterSource()
+                    .addValue("estado", regiao.getEstado())
+                    .addValue("cidade", regiao.getCidade())
+                    .addValue("delta", sinal * quantidade);
+            if (named.update(EstatisticaRegiaoRepository.SQL_INCREMENTAR, parametros) == 0
+                    && named.update(EstatisticaRegiaoRepository.SQL_INSERIR_SE_AUSENTE, parametros) == 0) {
+                named.update(EstatisticaRegiaoRepository.SQL_INCREMENTAR, parametros);
+            }
+        });
+    }
+
+    // Garante que a sequência do destino nunca gere um ID já usado pelos registros recebidos. A sequência só avança:
+    // valores já entregues a cadastros ainda não confirmados (fora do MAX(ID)) nunca voltam a ser gerados
+    private void ajustarSequencia(JdbcTemplate jdbc, long maiorSequenciaRecebida) {
+        Long atual = jdbc.queryForObject("SELECT nextval('sq_cliente')", Long.class);
+        if (atual != null && atual <= maiorSequenciaRecebida) {
+            jdbc.execute("ALTER SEQUENCE sq_cliente RESTART WITH " + (maiorSequenciaRecebida + 1));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Alex Viana
+ * DataSource que encaminha cada conexão para o shard definido no {@link ShardContext}.
+ * Sem contexto (ex: inicialização do Hibernate), usa o shard 0, que também guarda o mapa de buckets.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final List<HikariDataSource> shards;
+
+    /**
+     * @param shards Os pools de conexão de cada shard, na ordem dos índices.
+     */
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = new ArrayList<>(shards);
+        Map<Object, Object> destinos = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            destinos.put(i, shards.get(i));
+        }
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(shards.get(0));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.shardAtual();
+    }
+
+    /**
+     * @param indice O índice do shard.
+     * @return O DataSource do shard, para acesso direto (ex: rebalanceamento).
+     */
+    public HikariDataSource getShard(int indice) {
+        return shards.get(indice);
+    }
+
+    /**
+     * @return A quantidade de shards configurados.
+     */
+    public int getQuantidadeShards() {
+        return shards.size();
+    }
+
+    /**
+     * Fecha os pools de conexão de todos os shards (chamado pelo Spring no encerramento).
+     */
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
\ No newline at end of file
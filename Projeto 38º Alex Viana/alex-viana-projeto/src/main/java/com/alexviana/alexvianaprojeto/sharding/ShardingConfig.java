@@ -0,0 +1,81 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Alex Viana
+ * Configuração do sharding de clientes, ativa apenas com {@code app.sharding.enabled=true}.
+ * Substitui o DataSource padrão do Spring Boot por um {@link ShardRoutingDataSource} sobre os shards configurados.
+ * O schema de cada shard deve existir previamente (ver db/shard-schema.sql), pois o Hibernate só enxerga o shard 0.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(ShardingProperties properties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("Sharding ativo, mas nenhum shard foi configurado em app.sharding.shards.");
+        }
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public ShardMap shardMap(ShardRoutingDataSource dataSource) {
+        ShardMap shardMap = new ShardMap(dataSource.getShard(0), dataSource.getQuantidadeShards());
+        shardMap.carregar();
+        return shardMap;
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardRoutingDataSource dataSource, ShardMap shardMap) {
+        ShardRebalancer shardRebalancer = new ShardRebalancer(dataSource, shardMap);
+        // Remoções que ficaram pendentes em uma execução anterior (ex: a aplicação parou no meio de um movimento)
+        try {
+            shardRebalancer.concluirRemocoesPendentes();
+        } catch (DAOException e) {
+            System.err.println("Erro ao concluir as remoções pendentes dos shards: " + e.getMessage());
+        }
+        return shardRebalancer;
+    }
+
+    // Pool usado pelo scatter-gather de buscarTodos/filtrarClientes
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shardExecutor(ShardingProperties properties) {
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : properties.getShards().size();
+        AtomicInteger contador = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "shard-scatter-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
\ No newline at end of file
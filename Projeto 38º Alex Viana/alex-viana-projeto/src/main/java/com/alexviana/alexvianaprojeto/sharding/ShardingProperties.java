@@ -0,0 +1,45 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Alex Viana
+ * Propriedades do sharding de clientes ({@code app.sharding.*}).
+ * Exemplo:
+ * <pre>
+ * app.sharding.enabled=true
+ * app.sharding.shards[0].url=jdbc:postgresql://db0:5432/vendasonline_db
+ * app.sharding.shards[1].url=jdbc:postgresql://db1:5432/vendasonline_db
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    /**
+     * Ativa o sharding por hash do CPF.
+     */
+    private boolean enabled;
+
+    /**
+     * Conexões de cada shard; o índice na lista é o índice do shard e não deve mudar.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Threads usadas nas consultas em paralelo (scatter-gather). Zero usa uma thread por shard.
+     */
+    private int threads;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,429 @@
+package com.alexviana.alexvianaprojeto.snapshot;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.repository.ClienteRepository;
+import com.alexviana.alexvianaprojeto.service.ClienteAlteracaoListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author Alex Viana
+ * Modelo de leitura em memória da tabela de clientes, em formato colunar compacto:
+ * IDs, CPFs e telefones em {@code long[]}, números em {@code int[]}, nomes, e-mails e endereços em arenas de bytes UTF-8,
+ * cidades e estados codificados por dicionário ({@link ColunaDicionario}) e índices primitivos ID -> linha e CPF -> linha.
+ * Carregado na subida da aplicação e atualizado após cada commit do {@code ClienteService}.
+ * Consultas e filtros percorrem apenas arrays primitivos; objetos {@link Cliente} são criados somente para as linhas retornadas.
+ * Ativo com {@code app.snapshot.enabled=true}. Não é compatível com o sharding, que distribui os clientes em vários bancos.
+ */
+@Component
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+@Order(ClienteAlteracaoListener.ORDEM_MODELO_LEITURA)
+public class ClienteSnapshot implements ClienteAlteracaoListener {
+
+    private static final int TAMANHO_LOTE_CARGA = 1000;
+
+    private final ClienteRepository clienteRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Uma carga por vez: duas cargas simultâneas trocariam as colunas e o registro de alterações uma da outra
+    private final ReentrantLock carga = new ReentrantLock();
+
+    private Colunas colunas = new Colunas(TAMANHO_LOTE_CARGA);
+    private volatile boolean carregado;
+    // IDs alterados por commits durante a carga: a versão lida pela carga pode estar desatualizada e é ignorada
+    private LongIntHashMap alteradosDuranteCarga;
+
+    /**
+     * Estatísticas de memória do snapshot.
+     * @param linhas Quantidade de clientes no snapshot.
+     * @param bytesAlocados Bytes alocados pelos arrays do snapshot (incluindo capacidade reservada).
+     * @param bytesPorLinha Bytes efetivamente ocupados por cliente (colunas, arena e entradas dos índices).
+     * @param bytesPorLinhaEntidadeJpa Estimativa de bytes por cliente carregado como entidade JPA destacada
+     *                                 (objeto, wrappers e Strings; sem o contexto de persistência do Hibernate).
+     */
+    public record Estatisticas(int linhas, long bytesAlocados, double bytesPorLinha, double bytesPorLinhaEntidadeJpa) {
+    }
+
+    @Autowired
+    public ClienteSnapshot(ClienteRepository clienteRepository, @Value("${app.sharding.enabled:false}") boolean shardingAtivo) {
+        if (shardingAtivo) {
+            throw new IllegalStateException("O snapshot de clientes (app.snapshot.enabled) não é compatível com o sharding (app.sharding.enabled).");
+        }
+        this.clienteRepository = clienteRepository;
+    }
+
+    /**
+     * Carrega todos os clientes do banco em lotes ordenados por ID (paginação por chave).
+     * Enquanto a carga não termina, {@link #isCarregado()} é falso e as leituras devem ir ao banco.
+     * Se outra carga estiver em andamento, espera ela terminar e carrega novamente.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        carga.lock();
+        try {
+            carregarTudo();
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    /**
+     * Recarrega o snapshot, a menos que outra carga já esteja em andamento.
+     * @return {@code false} se outra carga estava em andamento (nada é feito).
+     */
+    public boolean recarregar() {
+        if (!carga.tryLock()) {
+            return false;
+        }
+        try {
+            carregarTudo();
+            return true;
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    private void carregarTudo() {
+        lock.writeLock().lock();
+        try {
+            carregado = false;
+            colunas = new Colunas((int) Math.min(Integer.MAX_VALUE / 2, Math.max(TAMANHO_LOTE_CARGA, clienteRepository.count())));
+            alteradosDuranteCarga = new LongIntHashMap(64);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long ultimoId = Long.MIN_VALUE;
+            List<Cliente> lote;
+            do {
+                lote = clienteRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, PageRequest.ofSize(TAMANHO_LOTE_CARGA));
+                lock.writeLock().lock();
+                try {
+                    for (Cliente cliente : lote) {
+                        if (alteradosDuranteCarga.get(cliente.getId()) == LongIntHashMap.AUSENTE) {
+                            colunas.salvar(cliente);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!lote.isEmpty()) {
+                    ultimoId = lote.get(lote.size() - 1).getId();
+                }
+            } while (lote.size() == TAMANHO_LOTE_CARGA);
+            carregado = true;
+        } catch (Exception e) {
+            System.err.println("Erro ao carregar o snapshot de clientes; as leituras continuarão no banco: " + e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                alteradosDuranteCarga = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} se o snapshot estiver completo e puder responder às leituras.
+     */
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    @Override
+    public void aposSalvar(Cliente cliente) {
+        lock.writeLock().lock();
+        try {
+            registrarAlteracaoDuranteCarga(cliente.getId());
+            colunas.salvar(cliente);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void aposExcluir(Cliente cliente) {
+        lock.writeLock().lock();
+        try {
+            registrarAlteracaoDuranteCarga(cliente.getId());
+            colunas.remover(cliente.getId());
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Cliente> consultar(long id) {
+        lock.readLock().lock();
+        try {
+            int linha = colunas.porId.get(id);
+            return linha == LongIntHashMap.AUSENTE ? Optional.empty() : Optional.of(colunas.montar(linha));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Cliente> buscarPorCpf(long cpf) {
+        lock.readLock().lock();
+        try {
+            int linha = colunas.porCpf.get(cpf);
+            return linha == LongIntHashMap.AUSENTE ? Optional.empty() : Optional.of(colunas.montar(linha));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filtra por parte do nome, sem diferenciar maiúsculas de minúsculas, com a mesma regra do {@code ClienteRepository}
+     * ({@code LIKE '%query%'}: {@code %} e {@code _} na busca são curingas, e {@code \} escapa o caractere seguinte).
+     */
+    public List<Cliente> filtrarPorNome(String query) {
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        PadraoLike padrao = PadraoLike.contendo(query.toLowerCase(Locale.ROOT));
+        lock.readLock().lock();
+        try {
+            List<Cliente> clientes = new ArrayList<>();
+            for (int linha = 0; linha < colunas.linhas; linha++) {
+                if (colunas.vivas[linha] && colunas.nomesBusca.corresponde(linha, padrao)) {
+                    clientes.add(colunas.montar(linha));
+                }
+            }
+            return clientes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Cliente> buscarTodos() {
+        lock.readLock().lock();
+        try {
+            List<Cliente> clientes = new ArrayList<>(colunas.porId.tamanho());
+            for (int linha = 0; linha < colunas.linhas; linha++) {
+                if (colunas.vivas[linha]) {
+                    clientes.add(colunas.montar(linha));
+                }
+            }
+            return clientes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compara a memória por cliente do snapshot com a estimativa da entidade JPA.
+     */
+    public Estatisticas estatisticas() {
+        lock.readLock().lock();
+        try {
+            int vivas = colunas.porId.tamanho();
+            long bytesOcupados = colunas.bytesOcupados();
+            long bytesEntidades = 0;
+            for (int linha = 0; linha < colunas.linhas; linha++) {
+                if (colunas.vivas[linha]) {
+                    bytesEntidades += colunas.bytesEntidadeJpa(linha);
+                }
+            }
+            return new Estatisticas(vivas, colunas.bytesAlocados(),
+                    vivas == 0 ? 0 : (double) bytesOcupados / vivas,
+                    vivas == 0 ? 0 : (double) bytesEntidades / vivas);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compactarSeNecessario() {
+        if (colunas.precisaCompactar()) {
+            colunas = colunas.compactar();
+        }
+    }
+
+    private void registrarAlteracaoDuranteCarga(Long id) {
+        if (alteradosDuranteCarga != null && id != null) {
+            alteradosDuranteCarga.put(id, 1);
+        }
+    }
+
+    /**
+     * Arrays do snapshot. Uma alteração marca a linha antiga como removida e acrescenta uma nova linha;
+     * as linhas removidas são descartadas na compactação.
+     */
+    private static final class Colunas {
+
+        private static final long SEM_CPF = Long.MIN_VALUE;
+        private static final long SEM_TEL = Long.MIN_VALUE;
+        private static final int SEM_NUMERO = Integer.MIN_VALUE;
+
+        private long[] ids;
+        private long[] cpfs;
+        private long[] tels;
+        private int[] numeros;
+        private boolean[] vivas;
+        private final ColunaTexto nomes;
+        private final ColunaTexto nomesBusca; // nomes em minúsculas, para o filtro sem diferenciar caixa
+        private final ColunaTexto emails;
+        private final ColunaTexto enderecos;
+        private final ColunaDicionario cidades;
+        private final ColunaDicionario estados;
+        private final LongIntHashMap porId;
+        private final LongIntHashMap porCpf;
+        private int linhas;
+        private int removidas;
+
+        Colunas(int capacidade) {
+            ids = new long[capacidade];
+            cpfs = new long[capacidade];
+            tels = new long[capacidade];
+            numeros = new int[capacidade];
+            vivas = new boolean[capacidade];
+            nomes = new ColunaTexto(capacidade, 24);
+            nomesBusca = new ColunaTexto(capacidade, 24);
+            emails = new ColunaTexto(capacidade, 24);
+            enderecos = new ColunaTexto(capacidade, 24);
+            cidades = new ColunaDicionario(capacidade);
+            estados = new ColunaDicionario(capacidade);
+            porId = new LongIntHashMap(capacidade);
+            porCpf = new LongIntHashMap(capacidade);
+        }
+
+        void salvar(Cliente cliente) {
+            remover(cliente.getId());
+            int linha = novaLinha(cliente.getId(), cliente.getCpf() == null ? SEM_CPF : cliente.getCpf());
+            nomes.definir(linha, cliente.getNome());
+            nomesBusca.definir(linha, cliente.getNome() == null ? null : cliente.getNome().toLowerCase(Locale.ROOT));
+            tels[linha] = cliente.getTel() == null ? SEM_TEL : cliente.getTel();
+            numeros[linha] = cliente.getNumero() == null ? SEM_NUMERO : cliente.getNumero();
+            emails.definir(linha, cliente.getEmail());
+            enderecos.definir(linha, cliente.getEnd());
+            cidades.definir(linha, cliente.getCidade());
+            estados.definir(linha, cliente.getEstado());
+        }
+
+        void remover(long id) {
+            int linha = porId.get(id);
+            if (linha == LongIntHashMap.AUSENTE) {
+                return;
+            }
+            vivas[linha] = false;
+            porId.remove(id);
+            if (porCpf.get(cpfs[linha]) == linha) {
+                porCpf.remove(cpfs[linha]);
+            }
+            removidas++;
+        }
+
+        Cliente montar(int linha) {
+            return Cliente.builder()
+                    .id(ids[linha])
+                    .cpf(cpfs[linha] == SEM_CPF ? null : cpfs[linha])
+                    .nome(nomes.ler(linha))
+                    .email(emails.ler(linha))
+                    .tel(tels[linha] == SEM_TEL ? null : tels[linha])
+                    .end(enderecos.ler(linha))
+                    .numero(numeros[linha] == SEM_NUMERO ? null : numeros[linha])
+                    .cidade(cidades.ler(linha))
+                    .estado(estados.ler(linha))
+                    .build();
+        }
+
+        boolean precisaCompactar() {
+            return removidas > TAMANHO_LOTE_CARGA && removidas > linhas / 2;
+        }
+
+        Colunas compactar() {
+            Colunas compactas = new Colunas(Math.max(TAMANHO_LOTE_CARGA, linhas - removidas));
+            for (int linha = 0; linha < linhas; linha++) {
+                if (vivas[linha]) {
+                    int nova = compactas.novaLinha(ids[linha], cpfs[linha]);
+                    compactas.nomes.copiar(nova, nomes, linha);
+                    compactas.nomesBusca.copiar(nova, nomesBusca, linha);
+                    compactas.tels[nova] = tels[linha];
+                    compactas.numeros[nova] = numeros[linha];
+                    compactas.emails.copiar(nova, emails, linha);
+                    compactas.enderecos.copiar(nova, enderecos, linha);
+                    compactas.cidades.copiar(nova, cidades, linha);
+                    compactas.estados.copiar(nova, estados, linha);
+                }
+            }
+            return compactas;
+        }
+
+        // Por linha: id, cpf, tel, número, flag, início/tamanho em cada coluna de texto e código em cada dicionário;
+        // mais as arenas, os dicionários e as entradas dos índices (chave long + valor int, com fator de carga máximo de 50%)
+        long bytesOcupados() {
+            return (long) linhas * (3 * Long.BYTES + Integer.BYTES + 1 + 4 * 2 * Integer.BYTES + 2 * Integer.BYTES)
+                    + nomes.bytesArenaPreenchidos() + nomesBusca.bytesArenaPreenchidos()
+                    + emails.bytesArenaPreenchidos() + enderecos.bytesArenaPreenchidos()
+                    + cidades.bytesDicionario() + estados.bytesDicionario()
+                    + (long) (porId.tamanho() + porCpf.tamanho()) * 2 * (Long.BYTES + Integer.BYTES);
+        }
+
+        long bytesAlocados() {
+            return (long) (ids.length + cpfs.length + tels.length) * Long.BYTES + (long) numeros.length * Integer.BYTES + vivas.length
+                    + nomes.bytesAlocados() + nomesBusca.bytesAlocados() + emails.bytesAlocados() + enderecos.bytesAlocados()
+                    + cidades.bytesAlocados() + estados.bytesAlocados() + porId.bytesAlocados() + porCpf.bytesAlocados();
+        }
+
+        // Cliente (cabeçalho + 9 referências) + Long id, cpf e tel + Integer número + uma String (objeto + byte[] Latin-1)
+        // por texto não nulo; na entidade, cidade e estado são Strings próprias de cada cliente
+        long bytesEntidadeJpa(int linha) {
+            return alinhar(12 + 9 * 4) + 2 * alinhar(12 + 8)
+                    + (tels[linha] == SEM_TEL ? 0 : alinhar(12 + 8))
+                    + (numeros[linha] == SEM_NUMERO ? 0 : alinhar(12 + 4))
+                    + bytesString(nomes.bytesDoValor(linha))
+                    + bytesString(emails.bytesDoValor(linha))
+                    + bytesString(enderecos.bytesDoValor(linha))
+                    + bytesString(tamanho(cidades.ler(linha)))
+                    + bytesString(tamanho(estados.ler(linha)));
+        }
+
+        private static int tamanho(String valor) {
+            return valor == null ? -1 : valor.length();
+        }
+
+        // String (objeto + byte[] Latin-1) com o tamanho informado; -1 para nulo
+        private static long bytesString(int tamanho) {
+            return tamanho < 0 ? 0 : alinhar(12 + 4 + 4 + 1 + 1) + alinhar(16 + tamanho);
+        }
+
+        private int novaLinha(long id, long cpf) {
+            if (linhas == ids.length) {
+                int capacidade = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacidade);
+                cpfs = Arrays.copyOf(cpfs, capacidade);
+                tels = Arrays.copyOf(tels, capacidade);
+                numeros = Arrays.copyOf(numeros, capacidade);
+                vivas = Arrays.copyOf(vivas, capacidade);
+            }
+            int linha = linhas++;
+            ids[linha] = id;
+            cpfs[linha] = cpf;
+            vivas[linha] = true;
+            porId.put(id, linha);
+            if (cpf != SEM_CPF) {
+                porCpf.put(cpf, linha);
+            }
+            return linha;
+        }
+
+        private static long alinhar(long bytes) {
+            return (bytes + 7) & ~7L;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.alexviana.alexvianaprojeto.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Alex Viana
+ * Coluna de textos com poucos valores distintos (cidade, estado), codificada por dicionário:
+ * cada valor distinto é guardado uma única vez e cada linha guarda apenas o código {@code int} (-1 para nulo).
+ * As leituras devolvem sempre a mesma instância de String para o mesmo valor.
+ * Não é thread-safe: o acesso é protegido pelo lock do snapshot.
+ */
+final class ColunaDicionario {
+
+    private static final int NULO = -1;
+
+    private final List<String> valores = new ArrayList<>();
+    private final Map<String, Integer> codigos = new HashMap<>();
+    private int[] linhas;
+
+    ColunaDicionario(int linhas) {
+        this.linhas = new int[Math.max(16, linhas)];
+    }
+
+    void definir(int linha, String valor) {
+        garantirLinhas(linha + 1);
+        linhas[linha] = valor == null ? NULO : codigos.computeIfAbsent(valor, novo -> {
+            valores.add(novo);
+            return valores.size() - 1;
+        });
+    }
+
+    /**
+     * Copia o valor de uma linha de outra coluna (usado na compactação; os códigos são refeitos no novo dicionário).
+     */
+    void copiar(int linha, ColunaDicionario origem, int linhaOrigem) {
+        definir(linha, origem.ler(linhaOrigem));
+    }
+
+    String ler(int linha) {
+        int codigo = linhas[linha];
+        return codigo == NULO ? null : valores.get(codigo);
+    }
+
+    /**
+     * @return Estimativa dos bytes do dicionário (String, byte[] Latin-1 e entrada do mapa por valor distinto).
+     */
+    long bytesDicionario() {
+        long bytes = 0;
+        for (String valor : valores) {
+            bytes += 24 + 16 + valor.length() + 32;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return Bytes alocados pelos códigos das linhas (incluindo capacidade reservada) e pelo dicionário.
+     */
+    long bytesAlocados() {
+        return (long) linhas.length * Integer.BYTES + bytesDicionario();
+    }
+
+    private void garantirLinhas(int quantidade) {
+        if (quantidade > linhas.length) {
+            linhas = Arrays.copyOf(linhas, Math.max(linhas.length * 2, quantidade));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.alexviana.alexvianaprojeto.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @author Alex Viana
+ * Coluna de textos compactada: os valores ficam em UTF-8 em uma única arena de bytes,
+ * com início e tamanho por linha em arrays primitivos (um valor nulo tem tamanho -1).
+ * A busca por substring é feita direto nos bytes, sem criar Strings.
+ * Não é thread-safe: o acesso é protegido pelo lock do snapshot.
+ */
+final class ColunaTexto {
+
+    /**
+     * Maior array que a JVM costuma aceitar.
+     */
+    static final int TAMANHO_MAXIMO_ARENA = Integer.MAX_VALUE - 8;
+    /**
+     * Reserva inicial máxima da arena: acima disso ela cresce conforme os valores são gravados.
+     */
+    static final int RESERVA_MAXIMA_ARENA = 64 * 1024 * 1024;
+
+    private byte[] arena;
+    private int usados;
+    private int[] inicios;
+    private int[] tamanhos;
+
+    ColunaTexto(int linhas, int bytesPorLinha) {
+        arena = new byte[reservaInicial(linhas, bytesPorLinha)];
+        inicios = new int[Math.max(16, linhas)];
+        tamanhos = new int[inicios.length];
+    }
+
+    void definir(int linha, String valor) {
+        garantirLinhas(linha + 1);
+        if (valor == null) {
+            inicios[linha] = 0;
+            tamanhos[linha] = -1;
+            return;
+        }
+        gravar(linha, valor.getBytes(StandardCharsets.UTF_8), 0, -1);
+    }
+
+    /**
+     * Copia o valor de uma linha de outra coluna (usado na compactação, sem passar por String).
+     */
+    void copiar(int linha, ColunaTexto origem, int linhaOrigem) {
+        garantirLinhas(linha + 1);
+        int tamanho = origem.tamanhos[linhaOrigem];
+        if (tamanho < 0) {
+            inicios[linha] = 0;
+            tamanhos[linha] = -1;
+            return;
+        }
+        gravar(linha, origem.arena, origem.inicios[linhaOrigem], tamanho);
+    }
+
+    String ler(int linha) {
+        int tamanho = tamanhos[linha];
+        return tamanho < 0 ? null : new String(arena, inicios[linha], tamanho, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Verifica se o valor da linha contém a sequência de bytes informada.
+     * @param linha A linha da coluna.
+     * @param padrao O padrão em UTF-8.
+     * @return {@code true} se o padrão ocorrer no valor (um padrão vazio ocorre em qualquer valor não nulo).
+     */
+    boolean contem(int linha, byte[] padrao) {
+        int tamanho = tamanhos[linha];
+        if (tamanho < padrao.length) {
+            return false;
+        }
+        int inicio = inicios[linha];
+        int ultimo = inicio + tamanho - padrao.length;
+        for (int i = inicio; i <= ultimo; i++) {
+            int j = 0;
+            while (j < padrao.length && arena[i + j] == padrao[j]) {
+                j++;
+            }
+            if (j == padrao.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica se o valor da linha corresponde ao padrão {@code LIKE}.
+     * @param linha A linha da coluna.
+     * @param padrao O padrão compilado.
+     * @return {@code true} se o valor corresponder (um valor nulo não corresponde a nenhum padrão, como no banco).
+     */
+    boolean corresponde(int linha, PadraoLike padrao) {
+        int tamanho = tamanhos[linha];
+        if (tamanho < 0) {
+            return false;
+        }
+        byte[] literal = padrao.literal();
+        return literal != null ? contem(linha, literal) : padrao.corresponde(arena, inicios[linha], tamanho);
+    }
+
+    /**
+     * @return O tamanho em bytes do valor da linha, ou -1 se o valor for nulo.
+     */
+    int bytesDoValor(int linha) {
+        return tamanhos[linha];
+    }
+
+    /**
+     * @return Bytes da arena efetivamente preenchidos.
+     */
+    int bytesArenaPreenchidos() {
+        return usados;
+    }
+
+    /**
+     * @return Bytes alocados pela arena e pelos arrays de posições (incluindo capacidade reservada).
+     */
+    long bytesAlocados() {
+        return arena.length + (long) inicios.length * Integer.BYTES + (long) tamanhos.length * Integer.BYTES;
+    }
+
+    /**
+     * Reserva inicial da arena para a quantidade de linhas esperada, calculada em {@code long}
+     * (linhas * bytesPorLinha passa de {@code Integer.MAX_VALUE} a partir de ~89 milhões de linhas com 24 bytes).
+     */
+    static int reservaInicial(int linhas, int bytesPorLinha) {
+        return (int) Math.min(RESERVA_MAXIMA_ARENA, Math.max(16, (long) linhas * bytesPorLinha));
+    }
+
+    /**
+     * Nova capacidade da arena para caber {@code necessario} bytes: o dobro da atual, limitado ao maior array possível.
+     * @throws IllegalStateException Se os textos da coluna não couberem em um único array.
+     */
+    static int novaCapacidade(int atual, long necessario) {
+        if (necessario > TAMANHO_MAXIMO_ARENA) {
+            throw new IllegalStateException("Os textos da coluna ocupam " + necessario
+                    + " bytes, acima do limite de " + TAMANHO_MAXIMO_ARENA + " bytes da arena do snapshot.");
+        }
+        return (int) Math.min(TAMANHO_MAXIMO_ARENA, Math.max(2L * atual, necessario));
+    }
+
+    private void gravar(int linha, byte[] origem, int inicioOrigem, int tamanhoInformado) {
+        int tamanho = tamanhoInformado < 0 ? origem.length : tamanhoInformado;
+        if ((long) usados + tamanho > arena.length) {
+            arena = Arrays.copyOf(arena, novaCapacidade(arena.length, (long) usados + tamanho));
+        }
+        System.arraycopy(origem, inicioOrigem, arena, usados, tamanho);
+        inicios[linha] = usados;
+        tamanhos[linha] = tamanho;
+        usados += tamanho;
+    }
+
+    private void garantirLinhas(int linhas) {
+        if (linhas > inicios.length) {
+            int capacidade = Math.max(inicios.length * 2, linhas);
+            inicios = Arrays.copyOf(inicios, capacidade);
+            tamanhos = Arrays.copyOf(tamanhos, capacidade);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.alexviana.alexvianaprojeto.snapshot;
+
+import java.util.Arrays;
+
+/**
+ * @author Alex Viana
+ * Mapa primitivo long -> int com endereçamento aberto (sondagem linear), sem objetos por entrada.
+ * Usado pelo {@link ClienteSnapshot} para indexar ID e CPF na linha do snapshot.
+ * Não é thread-safe: o acesso é protegido pelo lock do snapshot.
+ */
+final class LongIntHashMap {
+
+    /**
+     * Valor devolvido quando a chave não existe (as linhas do snapshot nunca são negativas).
+     */
+    static final int AUSENTE = -1;
+
+    private long[] chaves;
+    private int[] valores;
+    private int mascara;
+    private int tamanho;
+
+    LongIntHashMap(int capacidadeEsperada) {
+        alocar(capacidadePara(capacidadeEsperada));
+    }
+
+    int get(long chave) {
+        int i = indice(chave);
+        while (valores[i] != AUSENTE) {
+            if (chaves[i] == chave) {
+                return valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return AUSENTE;
+    }
+
+    void put(long chave, int valor) {
+        if ((tamanho + 1) * 2 > chaves.length) {
+            redimensionar(chaves.length * 2);
+        }
+        int i = indice(chave);
+        while (valores[i] != AUSENTE) {
+            if (chaves[i] == chave) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = chave;
+        valores[i] = valor;
+        tamanho++;
+    }
+
+    void remove(long chave) {
+        int i = indice(chave);
+        while (valores[i] != AUSENTE && chaves[i] != chave) {
+            i = (i + 1) & mascara;
+        }
+        if (valores[i] == AUSENTE) {
+            return;
+        }
+        valores[i] = AUSENTE;
+        tamanho--;
+        // Deslocamento para trás: reposiciona as entradas seguintes para não deixar "buracos" na sondagem
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (valores[j] == AUSENTE) {
+                return;
+            }
+            int ideal = indice(chaves[j]);
+            boolean idealEntreBuracoEAtual = i <= j ? (i < ideal && ideal <= j) : (i < ideal || ideal <= j);
+            if (!idealEntreBuracoEAtual) {
+                chaves[i] = chaves[j];
+                valores[i] = valores[j];
+                valores[j] = AUSENTE;
+                i = j;
+            }
+        }
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * @return Bytes alocados pelos arrays do mapa.
+     */
+    long bytesAlocados() {
+        return (long) chaves.length * Long.BYTES + (long) valores.length * Integer.BYTES;
+    }
+
+    private int indice(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private void redimensionar(int novaCapacidade) {
+        long[] chavesAntigas = chaves;
+        int[] valoresAntigos = valores;
+        alocar(novaCapacidade);
+        tamanho = 0;
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (valoresAntigos[i] != AUSENTE) {
+                put(chavesAntigas[i], valoresAntigos[i]);
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        valores = new int[capacidade];
+        Arrays.fill(valores, AUSENTE);
+        mascara = capacidade - 1;
+    }
+
+    private static int capacidadePara(int elementos) {
+        int capacidade = 16;
+        while (capacidade < elementos * 2) {
+            capacidade <<= 1;
+        }
+        return capacidade;
+    }
+}
\ No newline at end of file
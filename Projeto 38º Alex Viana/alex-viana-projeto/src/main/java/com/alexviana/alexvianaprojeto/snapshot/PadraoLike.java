@@ -0,0 +1,131 @@
+package com.alexviana.alexvianaprojeto.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @author Alex Viana
+ * Padrão {@code LIKE} compilado para comparação direto em bytes UTF-8, com a mesma regra do banco:
+ * {@code %} corresponde a qualquer sequência, {@code _} a exatamente um caractere e {@code \} escapa o caractere seguinte.
+ * Sem curingas, o padrão é só uma sequência de bytes e a busca usa a comparação de substring da {@link ColunaTexto}.
+ */
+final class PadraoLike {
+
+    private static final int QUALQUER_SEQUENCIA = -1;
+    private static final int UM_CARACTERE = -2;
+
+    // Bytes literais (0-255) e curingas; nulo se o padrão não tiver curingas
+    private final int[] simbolos;
+    // Bytes do padrão sem curingas; nulo se houver curingas
+    private final byte[] literal;
+
+    private PadraoLike(int[] simbolos, byte[] literal) {
+        this.simbolos = simbolos;
+        this.literal = literal;
+    }
+
+    /**
+     * Compila o padrão {@code '%' + trecho + '%'}, usado no filtro por parte do nome.
+     * @param trecho O trecho buscado, que pode conter curingas.
+     * @return O padrão compilado.
+     */
+    static PadraoLike contendo(String trecho) {
+        int[] simbolos = new int[trecho.length() * 4 + 2];
+        int quantidade = 0;
+        boolean curinga = false;
+        simbolos[quantidade++] = QUALQUER_SEQUENCIA;
+        for (int i = 0; i < trecho.length(); ) {
+            int caractere = trecho.codePointAt(i);
+            i += Character.charCount(caractere);
+            if (caractere == '\\' && i < trecho.length()) {
+                caractere = trecho.codePointAt(i);
+                i += Character.charCount(caractere);
+            } else if (caractere == '%' || caractere == '_') {
+                // Vários % seguidos equivalem a um só
+                if (caractere == '_' || simbolos[quantidade - 1] != QUALQUER_SEQUENCIA) {
+                    simbolos[quantidade++] = caractere == '%' ? QUALQUER_SEQUENCIA : UM_CARACTERE;
+                }
+                curinga = true;
+                continue;
+            }
+            for (byte b : new String(Character.toChars(caractere)).getBytes(StandardCharsets.UTF_8)) {
+                simbolos[quantidade++] = b & 0xFF;
+            }
+        }
+        if (simbolos[quantidade - 1] != QUALQUER_SEQUENCIA) {
+            simbolos[quantidade++] = QUALQUER_SEQUENCIA;
+        }
+        if (curinga) {
+            return new PadraoLike(Arrays.copyOf(simbolos, quantidade), null);
+        }
+        // Trecho vazio: o padrão é só "%", e o literal vazio corresponde a qualquer valor não nulo
+        byte[] literal = new byte[Math.max(0, quantidade - 2)];
+        for (int i = 0; i < literal.length; i++) {
+            literal[i] = (byte) simbolos[i + 1];
+        }
+        return new PadraoLike(null, literal);
+    }
+
+    /**
+     * @return Os bytes do padrão, se ele não tiver curingas (basta procurar a substring); {@code null} caso contrário.
+     */
+    byte[] literal() {
+        return literal;
+    }
+
+    /**
+     * Compara o padrão com um valor em UTF-8. Um {@code %} que não leva à correspondência é estendido
+     * um caractere por vez (retrocesso apenas até o último {@code %}, suficiente para este tipo de padrão).
+     * @param bytes Os bytes que contêm o valor.
+     * @param inicio O início do valor.
+     * @param tamanho O tamanho do valor em bytes.
+     * @return {@code true} se o valor inteiro corresponder ao padrão.
+     */
+    boolean corresponde(byte[] bytes, int inicio, int tamanho) {
+        if (simbolos == null) {
+            throw new IllegalStateException("Padrão sem curingas: use a busca por substring.");
+        }
+        int fim = inicio + tamanho;
+        int s = 0;
+        int i = inicio;
+        int ultimoCuringa = -1;
+        int retomada = -1;
+        while (i < fim) {
+            if (s < simbolos.length && simbolos[s] == QUALQUER_SEQUENCIA) {
+                ultimoCuringa = s++;
+                retomada = i;
+            } else if (s < simbolos.length && simbolos[s] == UM_CARACTERE) {
+                i += tamanhoCaractere(bytes[i]);
+                s++;
+            } else if (s < simbolos.length && simbolos[s] == (bytes[i] & 0xFF)) {
+                i++;
+                s++;
+            } else if (ultimoCuringa >= 0) {
+                retomada += tamanhoCaractere(bytes[retomada]);
+                i = retomada;
+                s = ultimoCuringa + 1;
+            } else {
+                return false;
+            }
+        }
+        while (s < simbolos.length && simbolos[s] == QUALQUER_SEQUENCIA) {
+            s++;
+        }
+        return s == simbolos.length && i == fim;
+    }
+
+    // Quantidade de bytes do caractere UTF-8 que começa com o byte informado
+    private static int tamanhoCaractere(byte primeiro) {
+        int b = primeiro & 0xFF;
+        if (b < 0x80) {
+            return 1;
+        }
+        if (b >= 0xF0) {
+            return 4;
+        }
+        if (b >= 0xE0) {
+            return 3;
+        }
+        return 2;
+    }
+}
\ No newline at end of file
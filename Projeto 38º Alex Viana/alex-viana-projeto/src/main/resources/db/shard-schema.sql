@@ -0,0 +1,26 @@
+-- Schema de cada shard de clientes (o Hibernate só atualiza o schema do shard 0).
+-- Usado pelos bancos embutidos do perfil "sharding-local"; em PostgreSQL, aplique o mesmo script em cada shard.
+CREATE SEQUENCE IF NOT EXISTS sq_cliente START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS TB_CLIENTE (
+    ID BIGINT NOT NULL PRIMARY KEY,
+    NOME VARCHAR(50) NOT NULL,
+    CPF BIGINT NOT NULL UNIQUE
+);
+
+-- Endereço e contato (shards criados antes destas colunas recebem apenas os ALTERs)
+ALTER TABLE TB_CLIENTE ADD COLUMN IF NOT EXISTS EMAIL VARCHAR(100);
+ALTER TABLE TB_CLIENTE ADD COLUMN IF NOT EXISTS TEL BIGINT;
+ALTER TABLE TB_CLIENTE ADD COLUMN IF NOT EXISTS ENDERECO VARCHAR(100);
+ALTER TABLE TB_CLIENTE ADD COLUMN IF NOT EXISTS NUMERO INTEGER;
+ALTER TABLE TB_CLIENTE ADD COLUMN IF NOT EXISTS CIDADE VARCHAR(50);
+ALTER TABLE TB_CLIENTE ADD COLUMN IF NOT EXISTS ESTADO VARCHAR(50);
+
+-- Contagem de clientes por região do shard; após criar a tabela em um shard com clientes,
+-- use POST /api/admin/estatisticas/reconstruir
+CREATE TABLE IF NOT EXISTS TB_ESTATISTICA_REGIAO (
+    ESTADO VARCHAR(50) NOT NULL,
+    CIDADE VARCHAR(50) NOT NULL,
+    QUANTIDADE BIGINT NOT NULL,
+    PRIMARY KEY (ESTADO, CIDADE)
+);
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.alexviana.alexvianaprojeto.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Alex Viana
+ * Testes da classificação de requisições do {@link ControleAdmissao}.
+ */
+class ControleAdmissaoTest {
+
+    private final ControleAdmissao controle = new ControleAdmissao(new AdmissaoProperties());
+
+    private ClasseOperacao classificar(String metodo, String caminho) {
+        return controle.classificar(new MockHttpServletRequest(metodo, caminho));
+    }
+
+    @Test
+    void recursosDoJsfNaoPassamPelaAdmissao() {
+        assertNull(classificar("GET", "/jakarta.faces.resource/theme.css.xhtml"));
+        assertNull(classificar("GET", "/jakarta.faces.resource/primefaces.js.xhtml"));
+        assertNull(classificar("GET", "/javax.faces.resource/jquery/jquery.js.xhtml"));
+    }
+
+    @Test
+    void paginasJsf() {
+        assertEquals(ClasseOperacao.VARREDURA, classificar("GET", "/cliente/list.xhtml"));
+        assertEquals(ClasseOperacao.POSTBACK_JSF, classificar("POST", "/cliente/list.xhtml"));
+    }
+
+    @Test
+    void apiDeClientes() {
+        assertEquals(ClasseOperacao.VARREDURA, classificar("GET", "/api/clientes"));
+        assertEquals(ClasseOperacao.VARREDURA, classificar("GET", "/api/clientes/filtrar"));
+        assertEquals(ClasseOperacao.VARREDURA, classificar("GET", "/api/clientes/estatisticas/regioes"));
+        assertEquals(ClasseOperacao.VARREDURA, classificar("GET", "/api/clientes/estatisticas/estados"));
+        assertEquals(ClasseOperacao.LEITURA_PONTUAL, classificar("GET", "/api/clientes/42"));
+        assertEquals(ClasseOperacao.LEITURA_PONTUAL, classificar("GET", "/api/clientes/cpf/123"));
+        assertEquals(ClasseOperacao.ESCRITA, classificar("POST", "/api/clientes"));
+        assertEquals(ClasseOperacao.ESCRITA, classificar("DELETE", "/api/clientes/42"));
+        assertNull(classificar("GET", "/api/admin/admissao"));
+    }
+}
\ No newline at end of file
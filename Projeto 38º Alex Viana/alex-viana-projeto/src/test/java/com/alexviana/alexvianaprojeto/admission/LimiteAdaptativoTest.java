@@ -0,0 +1,77 @@
+package com.alexviana.alexvianaprojeto.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Testes do ajuste do {@link LimiteAdaptativo} pelo gradiente de latência. As respostas são simuladas com o limite
+ * inteiramente em uso, como numa classe saturada.
+ */
+class LimiteAdaptativoTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Ocupa todas as vagas e libera cada uma com a latência informada
+    private static void responder(LimiteAdaptativo limite, int rodadas, long latenciaNanos) {
+        for (int i = 0; i < rodadas; i++) {
+            int admitidas = 0;
+            while (limite.tentarAdquirir()) {
+                admitidas++;
+            }
+            for (int j = 0; j < admitidas; j++) {
+                limite.liberar(latenciaNanos, false);
+            }
+        }
+    }
+
+    @Test
+    void classeLentaPorNaturezaNaoCaiAoMinimo() {
+        // Latência inicial de 500 ms, mas a varredura leva 2 s de forma estável: não é sobrecarga
+        LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 8, 500 * MS, true);
+        responder(limite, 200, 2_000 * MS);
+        assertEquals(8, limite.estatisticas().limite());
+    }
+
+    @Test
+    void latenciaMuitoAcimaDaBaseReduzOLimite() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(40, 8, 200, 50 * MS, true);
+        responder(limite, 200, 10 * MS);
+        int estavel = limite.estatisticas().limite();
+        assertTrue(estavel > 40, "O limite deveria crescer com latência estável: " + estavel);
+
+        responder(limite, 20, 200 * MS);
+        LimiteAdaptativo.Estatisticas congestionado = limite.estatisticas();
+        assertTrue(congestionado.limite() < estavel * 3 / 4, "O limite deveria encolher: " + estavel + " -> " + congestionado.limite());
+        assertTrue(congestionado.reducoes() > 0);
+    }
+
+    @Test
+    void ociosoNaoCresce() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(16, 2, 64, 200 * MS, true);
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(limite.tentarAdquirir());
+            limite.liberar(5 * MS, false);
+        }
+        assertEquals(16, limite.estatisticas().limite());
+    }
+
+    @Test
+    void erroDoServidorReduzMultiplicativamente() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(20, 2, 64, 0, true);
+        assertTrue(limite.tentarAdquirir());
+        limite.liberar(MS, true);
+        assertEquals(18, limite.estatisticas().limite());
+    }
+
+    @Test
+    void semAdaptacaoOLimiteFica() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 8, 500 * MS, false);
+        responder(limite, 100, 5_000 * MS);
+        assertEquals(4, limite.estatisticas().limite());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.alexviana.alexvianaprojeto.cache;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.service.generic.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Testes do {@link ClienteRespostaCache} com leituras coalescidas: o "banco" é um {@link AtomicReference} lido por um
+ * {@link SingleFlight}, como as leituras do {@code GenericService}.
+ */
+class ClienteRespostaCacheTest {
+
+    private static final Duration ESPERA = Duration.ofSeconds(10);
+
+    private final ClienteRespostaCache cache = new ClienteRespostaCache(new ObjectMapper(), 100, DataSize.ofBytes(512));
+    private final SingleFlight<Long> leituras = new SingleFlight<>();
+    private final AtomicReference<Cliente> banco = new AtomicReference<>(cliente("Antes"));
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private static Cliente cliente(String nome) {
+        return Cliente.builder().id(1L).nome(nome).cpf(12345678909L).build();
+    }
+
+    private Optional<Cliente> ler(CountDownLatch liberar) throws DAOException {
+        return leituras.executar(1L, ESPERA, () -> {
+            Cliente lido = banco.get(); // a leitura vê o estado de quando começou
+            try {
+                liberar.await(ESPERA.toSeconds(), TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(lido);
+        }, encontrado -> encontrado.map(c -> c.toBuilder().build()));
+    }
+
+    private static String corpo(RespostaCliente resposta) {
+        return new String(resposta.json(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void respostaDeLeituraIniciadaAntesDaAlteracaoNaoEGuardada() throws Exception {
+        CountDownLatch liberarLider = new CountDownLatch(1);
+        // A: leitura que começa antes do commit
+        Future<Optional<RespostaCliente>> lider = executor.submit(() -> cache.porId(1L, () -> ler(liberarLider)));
+        while (leituras.estatisticas().emAndamento() == 0) {
+            Thread.sleep(1);
+        }
+
+        // Commit da alteração e invalidação do cache
+        Cliente alterado = cliente("Depois");
+        banco.set(alterado);
+        cache.aposSalvar(alterado);
+
+        // B: falta no cache depois da invalidação, mas aproveita a leitura de A (versão anterior)
+        Thread liberador = new Thread(() -> {
+            while (leituras.estatisticas().coalescidas() == 0) {
+                Thread.onSpinWait();
+            }
+            liberarLider.countDown();
+        });
+        liberador.start();
+        Optional<RespostaCliente> seguidor = cache.porId(1L, () -> ler(new CountDownLatch(0)));
+        liberador.join();
+
+        assertTrue(corpo(seguidor.orElseThrow()).contains("Antes"));
+        assertTrue(corpo(lider.get(ESPERA.toSeconds(), TimeUnit.SECONDS).orElseThrow()).contains("Antes"));
+        assertEquals(0, cache.estatisticas().entradas(), "A versão anterior não pode ficar no cache");
+        assertEquals(2, cache.estatisticas().descartados());
+
+        // A próxima falta lê a versão atual e a guarda
+        assertTrue(corpo(cache.porId(1L, () -> ler(new CountDownLatch(0))).orElseThrow()).contains("Depois"));
+        assertEquals(1, cache.estatisticas().entradas());
+        assertTrue(corpo(cache.porId(1L, () -> Optional.empty()).orElseThrow()).contains("Depois"));
+        assertEquals(1, cache.estatisticas().acertos());
+    }
+}
\ No newline at end of file
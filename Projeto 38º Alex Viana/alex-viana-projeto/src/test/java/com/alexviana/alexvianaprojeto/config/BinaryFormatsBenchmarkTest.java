@@ -0,0 +1,61 @@
+package com.alexviana.alexvianaprojeto.config;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Mede a vazão de serialização da listagem de clientes em JSON, CBOR e Smile (mesmos mappers e clientes do
+ * {@link BinaryFormatsTest}). Fora do build padrão: roda com {@code ./mvnw -Pbenchmark test}, e os números são
+ * impressos para comparação, já que a vazão varia demais entre máquinas para virar asserção.
+ */
+@Tag("benchmark")
+class BinaryFormatsBenchmarkTest {
+
+    private static final int AQUECIMENTO_MS = 1_000;
+    private static final int MEDICAO_MS = 2_000;
+
+    @Test
+    void compararVazao() throws Exception {
+        List<Cliente> clientes = BinaryFormatsTest.clientes();
+        System.out.printf("%-7s %10s %14s %14s%n", "Formato", "Bytes", "Escritas/s", "Leituras/s");
+        for (Map.Entry<String, ObjectMapper> formato : BinaryFormatsTest.mappers().entrySet()) {
+            ObjectMapper mapper = formato.getValue();
+            byte[] corpo = mapper.writeValueAsBytes(clientes);
+            double escritas = medir(() -> mapper.writeValueAsBytes(clientes));
+            double leituras = medir(() -> mapper.readValue(corpo, new TypeReference<List<Cliente>>() { }));
+            System.out.printf("%-7s %10d %14.0f %14.0f%n", formato.getKey(), corpo.length, escritas, leituras);
+            assertTrue(escritas > 0 && leituras > 0, formato.getKey());
+        }
+    }
+
+    private interface Operacao {
+        Object executar() throws Exception;
+    }
+
+    // Operações por segundo, depois de um aquecimento para o JIT
+    private static double medir(Operacao operacao) throws Exception {
+        long fimAquecimento = System.nanoTime() + AQUECIMENTO_MS * 1_000_000L;
+        while (System.nanoTime() < fimAquecimento) {
+            operacao.executar();
+        }
+        long inicio = System.nanoTime();
+        long fim = inicio + MEDICAO_MS * 1_000_000L;
+        long operacoes = 0;
+        Object ultimo = null;
+        while (System.nanoTime() < fim) {
+            ultimo = operacao.executar();
+            operacoes++;
+        }
+        assertTrue(ultimo != null);
+        return operacoes / ((System.nanoTime() - inicio) / 1e9);
+    }
+}
\ No newline at end of file
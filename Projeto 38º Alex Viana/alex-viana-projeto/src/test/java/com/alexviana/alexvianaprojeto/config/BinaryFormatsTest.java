@@ -0,0 +1,76 @@
+package com.alexviana.alexvianaprojeto.config;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Listagem de clientes em JSON, CBOR e Smile, com os mappers montados como na aplicação (o JSON pelo
+ * {@link Jackson2ObjectMapperBuilder}, CBOR e Smile pelo {@link BinaryFormatsConfig}): todos devolvem os mesmos
+ * clientes na leitura e os formatos binários são menores que o JSON. A vazão é medida no
+ * {@link BinaryFormatsBenchmarkTest}, fora do build padrão.
+ */
+class BinaryFormatsTest {
+
+    private static final int CLIENTES = 1_000;
+
+    static Map<String, ObjectMapper> mappers() {
+        BinaryFormatsConfig config = new BinaryFormatsConfig();
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("JSON", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("CBOR", config.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper());
+        mappers.put("Smile", config.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper());
+        return mappers;
+    }
+
+    static List<Cliente> clientes() {
+        String[][] regioes = {{"São Paulo", "SP"}, {"Rio de Janeiro", "RJ"}, {"Belo Horizonte", "MG"}, {"Curitiba", "PR"}};
+        List<Cliente> clientes = new ArrayList<>(CLIENTES);
+        for (int i = 0; i < CLIENTES; i++) {
+            String[] regiao = regioes[i % regioes.length];
+            clientes.add(Cliente.builder()
+                    .id((long) i + 1)
+                    .nome("Cliente " + i)
+                    .cpf(10_000_000_000L + i * 7919L)
+                    .email(i % 10 == 0 ? null : "cliente" + i + "@exemplo.com.br")
+                    .tel(11_900_000_000L + i)
+                    .end("Rua " + (i % 200))
+                    .numero(i % 1000)
+                    .cidade(regiao[0])
+                    .estado(regiao[1])
+                    .build());
+        }
+        return clientes;
+    }
+
+    @Test
+    void todosOsFormatosDevolvemOsMesmosClientes() throws Exception {
+        List<Cliente> clientes = clientes();
+        for (Map.Entry<String, ObjectMapper> formato : mappers().entrySet()) {
+            byte[] corpo = formato.getValue().writeValueAsBytes(clientes);
+            assertEquals(clientes, formato.getValue().readValue(corpo, new TypeReference<List<Cliente>>() { }), formato.getKey());
+        }
+    }
+
+    @Test
+    void formatosBinariosSaoMenoresQueJson() throws Exception {
+        List<Cliente> clientes = clientes();
+        Map<String, Integer> tamanhos = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> formato : mappers().entrySet()) {
+            tamanhos.put(formato.getKey(), formato.getValue().writeValueAsBytes(clientes).length);
+        }
+        assertTrue(tamanhos.get("CBOR") < tamanhos.get("JSON"), "CBOR deveria ser menor que JSON: " + tamanhos);
+        assertTrue(tamanhos.get("Smile") < tamanhos.get("JSON"), "Smile deveria ser menor que JSON: " + tamanhos);
+    }
+}
\ No newline at end of file
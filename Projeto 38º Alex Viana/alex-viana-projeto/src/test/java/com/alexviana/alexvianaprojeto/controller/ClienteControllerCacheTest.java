@@ -0,0 +1,195 @@
+package com.alexviana.alexvianaprojeto.controller;
+
+import com.alexviana.alexvianaprojeto.cache.ClienteRespostaCache;
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.service.IClienteService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Alex Viana
+ * Contrato HTTP das buscas por ID e CPF com o cache de respostas ativo, sobre um H2 em memória: ETag e 304 para
+ * {@code If-None-Match}, Content-Length do corpo enviado, gzip só acima do tamanho mínimo, CBOR pela negociação
+ * de conteúdo do Spring (fora do cache) e invalidação da resposta por CPF após alterar e excluir.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cliente-controller-cache;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "app.response-cache.enabled=true",
+        "app.response-cache.gzip-minimo=256B",
+        "app.admission.enabled=false", "app.jfr.enabled=false", "app.faces.load-on-startup=-1"})
+@AutoConfigureMockMvc
+class ClienteControllerCacheTest {
+
+    private static final AtomicLong CPFS = new AtomicLong(60_000_000_000L);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IClienteService clienteService;
+
+    @Autowired
+    private ClienteRespostaCache respostaCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Nome, e-mail e endereço curtos: o JSON fica abaixo do mínimo do gzip
+    private Cliente cadastrarPequeno() throws DAOException {
+        return clienteService.cadastrar(Cliente.builder().nome("Ana").cpf(CPFS.getAndIncrement())
+                .cidade("Natal").estado("RN").build());
+    }
+
+    // Textos repetitivos: o JSON passa do mínimo do gzip e comprime bem
+    private Cliente cadastrarGrande() throws DAOException {
+        return clienteService.cadastrar(Cliente.builder().nome("Maria Aparecida da Silva Santos Oliveira")
+                .cpf(CPFS.getAndIncrement()).email("maria.aparecida.silva.santos.oliveira@exemplo.com.br")
+                .tel(84_999_990_000L).end("Avenida Senador Salgado Filho, Bloco B, Apartamento 1203, Lagoa Nova")
+                .numero(1203).cidade("Natal").estado("RN").build());
+    }
+
+    private MockHttpServletResponse buscar(String caminho, String... cabecalhos) throws Exception {
+        var requisicao = get(caminho);
+        for (int i = 0; i < cabecalhos.length; i += 2) {
+            requisicao.header(cabecalhos[i], cabecalhos[i + 1]);
+        }
+        return mockMvc.perform(requisicao).andReturn().getResponse();
+    }
+
+    private static byte[] descomprimir(byte[] gzip) throws Exception {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    @Test
+    void respostaTemEtagEContentLengthE304ParaIfNoneMatch() throws Exception {
+        Cliente cliente = cadastrarPequeno();
+        MockHttpServletResponse primeira = buscar("/api/clientes/" + cliente.getId());
+        assertEquals(200, primeira.getStatus());
+        assertTrue(primeira.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+        byte[] corpo = primeira.getContentAsByteArray();
+        assertEquals(corpo.length, primeira.getContentLength());
+        // O corpo é o mesmo que o conversor JSON do Spring escreveria
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(cliente)), objectMapper.readTree(corpo));
+        String etag = primeira.getHeader(HttpHeaders.ETAG);
+        assertTrue(etag != null && etag.startsWith("\"") && etag.endsWith("\""), etag);
+
+        long acertos = respostaCache.estatisticas().acertos();
+        MockHttpServletResponse doCache = buscar("/api/clientes/" + cliente.getId());
+        assertArrayEquals(corpo, doCache.getContentAsByteArray());
+        assertEquals(etag, doCache.getHeader(HttpHeaders.ETAG));
+        assertEquals(acertos + 1, respostaCache.estatisticas().acertos());
+
+        MockHttpServletResponse naoModificada = buscar("/api/clientes/" + cliente.getId(), HttpHeaders.IF_NONE_MATCH, etag);
+        assertEquals(304, naoModificada.getStatus());
+        assertEquals(0, naoModificada.getContentAsByteArray().length);
+        assertEquals(etag, naoModificada.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, buscar("/api/clientes/cpf/" + cliente.getCpf(), HttpHeaders.IF_NONE_MATCH, "W/" + etag).getStatus());
+        assertEquals(200, buscar("/api/clientes/" + cliente.getId(), HttpHeaders.IF_NONE_MATCH, "\"outra\"").getStatus());
+    }
+
+    @Test
+    void gzipSoAcimaDoTamanhoMinimo() throws Exception {
+        Cliente grande = cadastrarGrande();
+        byte[] json = buscar("/api/clientes/" + grande.getId()).getContentAsByteArray();
+        assertTrue(json.length >= 256, "O JSON deveria passar do mínimo do gzip: " + json.length);
+
+        MockHttpServletResponse comprimida = buscar("/api/clientes/" + grande.getId(), HttpHeaders.ACCEPT_ENCODING, "gzip, br");
+        assertEquals(200, comprimida.getStatus());
+        assertEquals("gzip", comprimida.getHeader(HttpHeaders.CONTENT_ENCODING));
+        byte[] gzip = comprimida.getContentAsByteArray();
+        assertTrue(gzip.length < json.length);
+        assertEquals(gzip.length, comprimida.getContentLength());
+        assertArrayEquals(json, descomprimir(gzip));
+        assertTrue(comprimida.getHeader(HttpHeaders.ETAG).endsWith("-gz\""));
+        assertTrue(comprimida.getHeader(HttpHeaders.VARY).contains("Accept-Encoding"));
+        // gzip;q=0 recusa a codificação
+        assertNull(buscar("/api/clientes/" + grande.getId(), HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
+                .getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        Cliente pequeno = cadastrarPequeno();
+        MockHttpServletResponse semGzip = buscar("/api/clientes/" + pequeno.getId(), HttpHeaders.ACCEPT_ENCODING, "gzip");
+        assertNull(semGzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(semGzip.getContentAsByteArray().length < 256);
+        assertEquals(semGzip.getContentAsByteArray().length, semGzip.getContentLength());
+    }
+
+    @Test
+    void cborNaoPassaPeloCache() throws Exception {
+        Cliente cliente = cadastrarPequeno();
+        buscar("/api/clientes/" + cliente.getId());
+        ClienteRespostaCache.Estatisticas antes = respostaCache.estatisticas();
+
+        MockHttpServletResponse cbor = buscar("/api/clientes/" + cliente.getId(), HttpHeaders.ACCEPT, "application/cbor");
+        assertEquals(200, cbor.getStatus());
+        assertTrue(cbor.getContentType().startsWith("application/cbor"), cbor.getContentType());
+        assertNull(cbor.getHeader(HttpHeaders.ETAG));
+        JsonNode lido = new CBORMapper().readTree(cbor.getContentAsByteArray());
+        assertEquals(cliente.getId().longValue(), lido.get("id").asLong());
+        assertEquals(cliente.getNome(), lido.get("nome").asText());
+
+        MockHttpServletResponse porCpf = buscar("/api/clientes/cpf/" + cliente.getCpf(), HttpHeaders.ACCEPT, "application/cbor");
+        assertTrue(porCpf.getContentType().startsWith("application/cbor"), porCpf.getContentType());
+
+        ClienteRespostaCache.Estatisticas depois = respostaCache.estatisticas();
+        assertEquals(antes.acertos(), depois.acertos());
+        assertEquals(antes.faltas(), depois.faltas());
+    }
+
+    @Test
+    void alterarEExcluirInvalidamARespostaPorCpf() throws Exception {
+        Cliente cliente = cadastrarPequeno();
+        String porCpf = "/api/clientes/cpf/" + cliente.getCpf();
+        MockHttpServletResponse antes = buscar(porCpf);
+        String etagAntes = antes.getHeader(HttpHeaders.ETAG);
+        assertEquals("Ana", objectMapper.readTree(antes.getContentAsByteArray()).get("nome").asText());
+        assertEquals(etagAntes, buscar(porCpf).getHeader(HttpHeaders.ETAG));
+
+        Cliente alterado = cliente.toBuilder().nome("Ana Alterada").build();
+        mockMvc.perform(put("/api/clientes/" + cliente.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(alterado)))
+                .andExpect(status().isOk());
+
+        MockHttpServletResponse depois = buscar(porCpf, HttpHeaders.IF_NONE_MATCH, etagAntes);
+        assertEquals(200, depois.getStatus());
+        assertNotEquals(etagAntes, depois.getHeader(HttpHeaders.ETAG));
+        assertEquals("Ana Alterada", objectMapper.readTree(depois.getContentAsByteArray()).get("nome").asText());
+        assertEquals("Ana Alterada", objectMapper.readTree(buscar("/api/clientes/" + cliente.getId())
+                .getContentAsByteArray()).get("nome").asText());
+
+        mockMvc.perform(delete("/api/clientes/" + cliente.getId())).andExpect(status().isNoContent());
+        assertEquals(404, buscar(porCpf).getStatus());
+        assertEquals(404, buscar(porCpf, HttpHeaders.IF_NONE_MATCH, depois.getHeader(HttpHeaders.ETAG)).getStatus());
+        assertEquals(404, buscar("/api/clientes/" + cliente.getId()).getStatus());
+    }
+}
\ No newline at end of file
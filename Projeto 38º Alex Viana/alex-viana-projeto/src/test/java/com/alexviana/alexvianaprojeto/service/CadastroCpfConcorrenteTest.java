@@ -0,0 +1,198 @@
+package com.alexviana.alexvianaprojeto.service;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Cadastros concorrentes com o mesmo CPF em um H2 em memória, com o pool no tamanho padrão do Hikari (10 conexões) e
+ * 64 threads escrevendo. Confere que cada CPF é cadastrado uma única vez (as outras tentativas são recusadas como
+ * duplicadas) e que quem espera pela trava de um CPF não segura conexão, deixando os outros CPFs seguirem.
+ * O prazo da trava é maior que o padrão porque os 62 cadastros do CPF disputado passam um de cada vez.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cadastro-cpf;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "app.cpf-lock.timeout=10s",
+        "app.admission.enabled=false", "app.jfr.enabled=false", "app.faces.load-on-startup=-1"})
+class CadastroCpfConcorrenteTest {
+
+    private static final int ESCRITORES = 64;
+    private static final int CPFS = 150;
+    private static final int TENTATIVAS_POR_CPF = 4;
+    private static final Duration ESPERA = Duration.ofSeconds(30);
+
+    @Autowired
+    private IClienteService clienteService;
+
+    @Autowired
+    private TravasCpf travasCpf;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(ESCRITORES);
+
+    @AfterEach
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private static Cliente cliente(long cpf) {
+        return Cliente.builder().nome("Cliente " + cpf).cpf(cpf).cidade("Cidade").estado("SP").build();
+    }
+
+    private static boolean duplicado(DAOException e) {
+        return e.getMessage() != null && e.getMessage().contains("já está cadastrado");
+    }
+
+    @Test
+    void cadaCpfECadastradoUmaVezComSessentaEQuatroEscritores() throws Exception {
+        long base = 10_000_000_000L;
+        List<Long> tentativas = new ArrayList<>(CPFS * TENTATIVAS_POR_CPF);
+        for (int i = 0; i < CPFS; i++) {
+            for (int t = 0; t < TENTATIVAS_POR_CPF; t++) {
+                tentativas.add(base + i);
+            }
+        }
+        Collections.shuffle(tentativas, new Random(1));
+
+        Map<Long, AtomicInteger> sucessos = new ConcurrentHashMap<>();
+        AtomicInteger recusados = new AtomicInteger();
+        List<Throwable> inesperados = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger proxima = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> escritores = new ArrayList<>();
+        for (int w = 0; w < ESCRITORES; w++) {
+            escritores.add(executor.submit(() -> {
+                largada.await();
+                for (int i = proxima.getAndIncrement(); i < tentativas.size(); i = proxima.getAndIncrement()) {
+                    long cpf = tentativas.get(i);
+                    try {
+                        clienteService.cadastrar(cliente(cpf));
+                        sucessos.computeIfAbsent(cpf, c -> new AtomicInteger()).incrementAndGet();
+                    } catch (DAOException e) {
+                        if (duplicado(e)) {
+                            recusados.incrementAndGet();
+                        } else {
+                            inesperados.add(e);
+                        }
+                    } catch (RuntimeException e) {
+                        inesperados.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> escritor : escritores) {
+            escritor.get(ESPERA.toSeconds(), TimeUnit.SECONDS);
+        }
+
+        assertTrue(inesperados.isEmpty(), () -> "Falhas inesperadas: " + inesperados);
+        assertEquals(CPFS, sucessos.size());
+        sucessos.forEach((cpf, vezes) -> assertEquals(1, vezes.get(), "CPF cadastrado mais de uma vez: " + cpf));
+        assertEquals(CPFS * (TENTATIVAS_POR_CPF - 1), recusados.get());
+        for (int i = 0; i < CPFS; i++) {
+            assertTrue(clienteService.buscarPorCPF(base + i).isPresent());
+        }
+    }
+
+    @Test
+    void esperaPeloMesmoCpfNaoSeguraConexaoDoPool() throws Exception {
+        long cpfDisputado = 20_000_000_000L;
+        long esperasAntes = travasCpf.estatisticas().esperas();
+        CountDownLatch travado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        // Segura a trava do CPF disputado (sem transação) enquanto os escritores se acumulam nela
+        Future<?> dono = executor.submit(() -> travasCpf.executarComCpfTravado(cpfDisputado, () -> {
+            travado.countDown();
+            try {
+                liberar.await(ESPERA.toSeconds(), TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(travado.await(ESPERA.toSeconds(), TimeUnit.SECONDS));
+
+        int esperando = ESCRITORES - 2;
+        AtomicInteger sucessosDisputado = new AtomicInteger();
+        AtomicInteger recusadosDisputado = new AtomicInteger();
+        List<Future<?>> disputados = new ArrayList<>();
+        for (int w = 0; w < esperando; w++) {
+            disputados.add(executor.submit(() -> {
+                try {
+                    clienteService.cadastrar(cliente(cpfDisputado));
+                    sucessosDisputado.incrementAndGet();
+                } catch (DAOException e) {
+                    if (!duplicado(e)) {
+                        throw e;
+                    }
+                    recusadosDisputado.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        esperarAte(() -> travasCpf.estatisticas().esperas() - esperasAntes >= esperando);
+
+        // Todos esperam a trava sem conexão: os outros CPFs usam o pool inteiro
+        assertEquals(0, ((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections());
+        int cadastrados = 0;
+        for (long cpf = cpfDisputado + 1; cadastrados < 50; cpf++) {
+            // Só CPFs de outra listra: um CPF da mesma listra esperaria a trava segurada acima
+            if (travasCpf.listra(cpf) != travasCpf.listra(cpfDisputado)) {
+                clienteService.cadastrar(cliente(cpf));
+                cadastrados++;
+            }
+        }
+
+        liberar.countDown();
+        dono.get(ESPERA.toSeconds(), TimeUnit.SECONDS);
+        for (Future<?> disputado : disputados) {
+            disputado.get(ESPERA.toSeconds(), TimeUnit.SECONDS);
+        }
+        assertEquals(1, sucessosDisputado.get());
+        assertEquals(esperando - 1, recusadosDisputado.get());
+    }
+
+    private static void esperarAte(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                throw new AssertionError("Condição não atingida em " + ESPERA);
+            }
+            Thread.sleep(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.alexviana.alexvianaprojeto.service;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.repository.ClienteRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Alex Viana
+ * Coalescência das leituras do {@link ClienteService} sobre um H2 em memória, contando as chamadas ao repositório:
+ * leituras simultâneas idênticas de {@code consultar}, {@code buscarPorCPF} e {@code filtrarClientes} fazem uma única
+ * consulta, e uma leitura que começa depois do commit de uma escrita não aproveita a consulta que já estava em
+ * andamento (ela faz a própria consulta e enxerga a escrita).
+ * A primeira consulta ao repositório fica parada até todas as leituras do teste chegarem a ela.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:leituras-coalescidas;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "app.coalescing.timeout=10s",
+        "app.admission.enabled=false", "app.jfr.enabled=false", "app.faces.load-on-startup=-1"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LeiturasCoalescidasTest {
+
+    private static final int LEITURAS = 8;
+    private static final Duration ESPERA = Duration.ofSeconds(10);
+
+    @SpyBean
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(LEITURAS + 1);
+    private long proximoCpf = 50_000_000_000L;
+
+    // A primeira chamada ao repositório espera a liberação; as seguintes seguem direto
+    private CountDownLatch consultaIniciada;
+    private CountDownLatch liberarConsulta;
+    private AtomicBoolean primeira;
+
+    @BeforeEach
+    void prepararConsultaParada() {
+        consultaIniciada = new CountDownLatch(1);
+        liberarConsulta = new CountDownLatch(1);
+        primeira = new AtomicBoolean(true);
+    }
+
+    @AfterAll
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private Object pararNaPrimeira(InvocationOnMock invocacao) throws Throwable {
+        if (primeira.compareAndSet(true, false)) {
+            consultaIniciada.countDown();
+            assertTrue(liberarConsulta.await(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        }
+        // O repositório é um proxy de interface: a resposta padrão do spy repassa a chamada ao repositório real
+        return Mockito.mockingDetails(clienteRepository).getMockCreationSettings().getDefaultAnswer().answer(invocacao);
+    }
+
+    private Cliente cadastrar(String nome) throws DAOException {
+        return clienteService.cadastrar(Cliente.builder().nome(nome).cpf(proximoCpf++).cidade("Recife").estado("PE").build());
+    }
+
+    // Dispara as leituras e libera a consulta parada depois que todas, menos a líder, entraram na consulta dela
+    private <R> List<R> leiturasSimultaneas(Callable<R> leitura) throws Exception {
+        long coalescidasAntes = clienteService.estatisticasCoalescencia().coalescidas();
+        List<Future<R>> leituras = new ArrayList<>();
+        for (int i = 0; i < LEITURAS; i++) {
+            leituras.add(executor.submit(leitura));
+        }
+        assertTrue(consultaIniciada.await(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        esperarAte(() -> clienteService.estatisticasCoalescencia().coalescidas() - coalescidasAntes == LEITURAS - 1);
+        liberarConsulta.countDown();
+        List<R> resultados = new ArrayList<>();
+        for (Future<R> futura : leituras) {
+            resultados.add(futura.get(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        }
+        return resultados;
+    }
+
+    @Test
+    void consultasSimultaneasFazemUmaSoConsulta() throws Exception {
+        Cliente cliente = cadastrar("Consulta Simultânea");
+        Mockito.clearInvocations(clienteRepository);
+        doAnswer(this::pararNaPrimeira).when(clienteRepository).findById(cliente.getId());
+
+        List<Optional<Cliente>> resultados = leiturasSimultaneas(() -> clienteService.consultar(cliente.getId()));
+
+        verify(clienteRepository, times(1)).findById(cliente.getId());
+        for (Optional<Cliente> resultado : resultados) {
+            assertEquals(cliente, resultado.orElseThrow());
+        }
+        // Cada leitura recebe a própria instância
+        assertEquals(LEITURAS, resultados.stream().map(Optional::get).map(System::identityHashCode).distinct().count());
+    }
+
+    @Test
+    void buscasSimultaneasPorCpfFazemUmaSoConsulta() throws Exception {
+        Cliente cliente = cadastrar("Busca Por Cpf Simultânea");
+        Mockito.clearInvocations(clienteRepository);
+        doAnswer(this::pararNaPrimeira).when(clienteRepository).findByCpf(cliente.getCpf());
+
+        List<Optional<Cliente>> resultados = leiturasSimultaneas(() -> clienteService.buscarPorCPF(cliente.getCpf()));
+
+        verify(clienteRepository, times(1)).findByCpf(cliente.getCpf());
+        resultados.forEach(resultado -> assertEquals(cliente.getId(), resultado.orElseThrow().getId()));
+    }
+
+    @Test
+    void filtrosSimultaneosFazemUmaSoConsulta() throws Exception {
+        Cliente cliente = cadastrar("Filtro Simultâneo");
+        Mockito.clearInvocations(clienteRepository);
+        doAnswer(this::pararNaPrimeira).when(clienteRepository).filtrarClientes(any());
+
+        List<List<Cliente>> resultados = leiturasSimultaneas(() -> clienteService.filtrarClientes("filtro simult"));
+
+        verify(clienteRepository, times(1)).filtrarClientes(any());
+        resultados.forEach(resultado -> assertEquals(List.of(cliente.getId()), resultado.stream().map(Cliente::getId).toList()));
+    }
+
+    @Test
+    void leituraDepoisDeAlterarNaoAproveitaConsultaAnterior() throws Exception {
+        Cliente cliente = cadastrar("Antes Da Alteracao");
+        Mockito.clearInvocations(clienteRepository);
+        doAnswer(this::pararNaPrimeira).when(clienteRepository).findById(cliente.getId());
+
+        Future<Optional<Cliente>> anterior = executor.submit(() -> clienteService.consultar(cliente.getId()));
+        assertTrue(consultaIniciada.await(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        Cliente alterado = clienteService.alterar(cliente.toBuilder().nome("Depois Da Alteracao").build());
+
+        // Começa depois do commit: faz a própria consulta em vez de esperar a que começou antes
+        assertEquals("Depois Da Alteracao", clienteService.consultar(cliente.getId()).orElseThrow().getNome());
+        liberarConsulta.countDown();
+        anterior.get(ESPERA.toSeconds(), TimeUnit.SECONDS);
+        verify(clienteRepository, times(2)).findById(cliente.getId());
+        assertEquals(alterado.getNome(), clienteService.consultar(cliente.getId()).orElseThrow().getNome());
+    }
+
+    @Test
+    void buscaPorCpfDepoisDeExcluirNaoAproveitaConsultaAnterior() throws Exception {
+        Cliente cliente = cadastrar("Excluido Durante A Busca");
+        Mockito.clearInvocations(clienteRepository);
+        doAnswer(this::pararNaPrimeira).when(clienteRepository).findByCpf(cliente.getCpf());
+
+        Future<Optional<Cliente>> anterior = executor.submit(() -> clienteService.buscarPorCPF(cliente.getCpf()));
+        assertTrue(consultaIniciada.await(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        clienteService.excluir(cliente);
+
+        assertFalse(clienteService.buscarPorCPF(cliente.getCpf()).isPresent());
+        liberarConsulta.countDown();
+        anterior.get(ESPERA.toSeconds(), TimeUnit.SECONDS);
+        verify(clienteRepository, times(2)).findByCpf(cliente.getCpf());
+    }
+
+    @Test
+    void filtroDepoisDeAlterarNaoAproveitaConsultaAnterior() throws Exception {
+        Cliente cliente = cadastrar("Nome Antigo Do Filtro");
+        Mockito.clearInvocations(clienteRepository);
+        doAnswer(this::pararNaPrimeira).when(clienteRepository).filtrarClientes(any());
+
+        Future<List<Cliente>> anterior = executor.submit(() -> clienteService.filtrarClientes("renomeado"));
+        assertTrue(consultaIniciada.await(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        clienteService.alterar(cliente.toBuilder().nome("Cliente Renomeado").build());
+
+        assertEquals(List.of(cliente.getId()),
+                clienteService.filtrarClientes("renomeado").stream().map(Cliente::getId).toList());
+        liberarConsulta.countDown();
+        anterior.get(ESPERA.toSeconds(), TimeUnit.SECONDS);
+        verify(clienteRepository, times(2)).filtrarClientes(any());
+    }
+
+    private static void esperarAte(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                throw new AssertionError("Condição não atingida em " + ESPERA);
+            }
+            Thread.sleep(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.alexviana.alexvianaprojeto.service;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.sharding.ShardKey;
+import com.alexviana.alexvianaprojeto.sharding.ShardMap;
+import com.alexviana.alexvianaprojeto.sharding.ShardRoutingDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Alex Viana
+ * Verificação e reconstrução da contagem por região com os 4 shards H2 do perfil "sharding-local", chamadas pelo
+ * endpoint administrativo (na thread da requisição, com o open-session-in-view ativo). O shard {@code s} recebe
+ * {@code s + 1} clientes, cada um em uma região própria, então cada shard tem uma resposta diferente.
+ * Também confere a atualização incremental da contagem no shard do cliente (+1 no cadastro, -1 na exclusão,
+ * mudança de região na alteração) e os primeiros cadastros simultâneos em uma região nova, que disputam a criação
+ * da linha da região. Os testes incrementais excluem os próprios clientes no fim, para não mudar as contagens acima.
+ */
+@SpringBootTest(properties = {"app.admission.enabled=false", "app.jfr.enabled=false", "app.faces.load-on-startup=-1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("sharding-local")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ManutencaoEstatisticaRegiaoShardingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IClienteService clienteService;
+
+    @Autowired
+    private ShardMap shardMap;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    private static final int CADASTROS_SIMULTANEOS = 8;
+    private static final Duration ESPERA = Duration.ofSeconds(30);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CADASTROS_SIMULTANEOS);
+    private long proximoCpf = 71_000_000_000L;
+
+    @BeforeAll
+    void cadastrarClientesPorShard() throws Exception {
+        long cpf = 70_000_000_000L;
+        for (int shard = 0; shard < shardMap.getQuantidadeShards(); shard++) {
+            for (int regiao = 0; regiao <= shard; regiao++) {
+                while (shardMap.shardDoBucket(ShardKey.bucketDoCpf(cpf)) != shard) {
+                    cpf++;
+                }
+                clienteService.cadastrar(Cliente.builder()
+                        .nome("Cliente " + shard + "-" + regiao)
+                        .cpf(cpf++)
+                        .cidade("Cidade " + shard + "-" + regiao)
+                        .estado("S" + shard)
+                        .build());
+            }
+        }
+    }
+
+    @AfterAll
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private synchronized long cpfDoShard(int shard) {
+        while (shardMap.shardDoBucket(ShardKey.bucketDoCpf(proximoCpf)) != shard) {
+            proximoCpf++;
+        }
+        return proximoCpf++;
+    }
+
+    private Cliente cadastrar(int shard, String estado, String cidade) throws DAOException {
+        return clienteService.cadastrar(Cliente.builder().nome("Incremental").cpf(cpfDoShard(shard))
+                .cidade(cidade).estado(estado).build());
+    }
+
+    // Quantidade registrada da região no shard (0 se a linha não existir)
+    private long quantidade(int shard, String estado, String cidade) {
+        List<Long> quantidades = new JdbcTemplate(dataSource.getShard(shard)).queryForList(
+                "SELECT QUANTIDADE FROM TB_ESTATISTICA_REGIAO WHERE ESTADO = ? AND CIDADE = ?", Long.class, estado, cidade);
+        return quantidades.isEmpty() ? 0 : quantidades.get(0);
+    }
+
+    private long quantidadeNosOutrosShards(int shard, String estado, String cidade) {
+        long total = 0;
+        for (int outro = 0; outro < shardMap.getQuantidadeShards(); outro++) {
+            if (outro != shard) {
+                total += quantidade(outro, estado, cidade);
+            }
+        }
+        return total;
+    }
+
+    @Test
+    void cadastroAlteracaoEExclusaoAjustamAContagemDoShard() throws Exception {
+        int shard = 1;
+        Cliente cliente = cadastrar(shard, "IN", "Origem");
+        assertEquals(1, quantidade(shard, "IN", "Origem"));
+        Cliente outro = cadastrar(shard, "IN", "Origem");
+        assertEquals(2, quantidade(shard, "IN", "Origem"));
+
+        // Mudança de cidade: -1 na região anterior, +1 na nova
+        Cliente alterado = clienteService.alterar(cliente.toBuilder().cidade("Destino").build());
+        assertEquals(1, quantidade(shard, "IN", "Origem"));
+        assertEquals(1, quantidade(shard, "IN", "Destino"));
+
+        // Mudança de estado, e uma alteração sem mudança de região não mexe na contagem
+        alterado = clienteService.alterar(alterado.toBuilder().estado("IX").build());
+        assertEquals(0, quantidade(shard, "IN", "Destino"));
+        assertEquals(1, quantidade(shard, "IX", "Destino"));
+        alterado = clienteService.alterar(alterado.toBuilder().nome("Só o nome").build());
+        assertEquals(1, quantidade(shard, "IX", "Destino"));
+
+        clienteService.excluir(alterado);
+        assertEquals(0, quantidade(shard, "IX", "Destino"));
+        clienteService.excluir(outro);
+        assertEquals(0, quantidade(shard, "IN", "Origem"));
+
+        assertEquals(0, quantidadeNosOutrosShards(shard, "IN", "Origem") + quantidadeNosOutrosShards(shard, "IN", "Destino")
+                + quantidadeNosOutrosShards(shard, "IX", "Destino"));
+        mockMvc.perform(get("/api/admin/estatisticas/verificar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.1.length()").value(0));
+    }
+
+    @Test
+    void primeirosCadastrosSimultaneosEmRegiaoNovaSomamTodos() throws Exception {
+        int shard = 3;
+        List<Cliente> cadastrados = new ArrayList<>();
+        try {
+            for (int rodada = 0; rodada < 5; rodada++) {
+                String cidade = "Nova " + rodada;
+                CyclicBarrier largada = new CyclicBarrier(CADASTROS_SIMULTANEOS);
+                List<Future<Cliente>> cadastros = new ArrayList<>();
+                for (int i = 0; i < CADASTROS_SIMULTANEOS; i++) {
+                    long cpf = cpfDoShard(shard);
+                    cadastros.add(executor.submit(() -> {
+                        largada.await(ESPERA.toSeconds(), TimeUnit.SECONDS);
+                        return clienteService.cadastrar(Cliente.builder().nome("Simultâneo").cpf(cpf)
+                                .cidade(cidade).estado("NV").build());
+                    }));
+                }
+                for (Future<Cliente> cadastro : cadastros) {
+                    cadastrados.add(cadastro.get(ESPERA.toSeconds(), TimeUnit.SECONDS));
+                }
+                assertEquals(CADASTROS_SIMULTANEOS, quantidade(shard, "NV", cidade), cidade);
+            }
+            mockMvc.perform(get("/api/admin/estatisticas/verificar"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.3.length()").value(0));
+        } finally {
+            for (Cliente cliente : cadastrados) {
+                clienteService.excluir(cliente);
+            }
+        }
+        assertEquals(5 * CADASTROS_SIMULTANEOS, cadastrados.size());
+        assertEquals(0, quantidade(shard, "NV", "Nova 0"));
+    }
+
+    @Test
+    void cadaShardEVerificadoEReconstruidoNoProprioBanco() throws Exception {
+        mockMvc.perform(post("/api/admin/estatisticas/reconstruir"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.0").value(1))
+                .andExpect(jsonPath("$.1").value(2))
+                .andExpect(jsonPath("$.2").value(3))
+                .andExpect(jsonPath("$.3").value(4));
+
+        // Só a contagem do shard 2 fica errada
+        new JdbcTemplate(dataSource.getShard(2)).update("UPDATE TB_ESTATISTICA_REGIAO SET QUANTIDADE = QUANTIDADE + 5");
+
+        mockMvc.perform(get("/api/admin/estatisticas/verificar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.0.length()").value(0))
+                .andExpect(jsonPath("$.1.length()").value(0))
+                .andExpect(jsonPath("$.2.length()").value(3))
+                .andExpect(jsonPath("$.2[0].estado").value("S2"))
+                .andExpect(jsonPath("$.2[0].quantidadeReal").value(1))
+                .andExpect(jsonPath("$.2[0].quantidadeRegistrada").value(6))
+                .andExpect(jsonPath("$.3.length()").value(0));
+
+        mockMvc.perform(post("/api/admin/estatisticas/reconstruir"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.2").value(3));
+
+        mockMvc.perform(get("/api/admin/estatisticas/verificar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.2.length()").value(0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.alexviana.alexvianaprojeto.service.generic;
+
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Testes do {@link SingleFlight}: a líder segura a consulta até todos os seguidores entrarem no voo,
+ * para que a coalescência não dependa do agendamento das threads.
+ */
+class SingleFlightTest {
+
+    private static final int CHAMADAS = 32;
+    private static final Duration ESPERA = Duration.ofSeconds(10);
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CHAMADAS);
+
+    @AfterEach
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void chamadasSimultaneasIdenticasExecutamUmaVez() throws Exception {
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch liberarLider = new CountDownLatch(1);
+        SingleFlight.Chamada<List<String>> chamada = () -> {
+            execucoes.incrementAndGet();
+            aguardar(liberarLider);
+            return new ArrayList<>(List.of("a", "b"));
+        };
+
+        List<Future<List<String>>> resultados = new ArrayList<>();
+        for (int i = 0; i < CHAMADAS; i++) {
+            resultados.add(executor.submit(() -> singleFlight.executar("todos", ESPERA, chamada, ArrayList::new)));
+        }
+        esperarAte(() -> singleFlight.estatisticas().coalescidas() == CHAMADAS - 1);
+        liberarLider.countDown();
+
+        List<List<String>> recebidos = new ArrayList<>();
+        for (Future<List<String>> resultado : resultados) {
+            recebidos.add(resultado.get(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        }
+        assertEquals(1, execucoes.get());
+        for (List<String> recebido : recebidos) {
+            assertEquals(List.of("a", "b"), recebido);
+        }
+        // Cada chamador recebe a própria instância: alterar uma lista não afeta as outras
+        for (int i = 1; i < recebidos.size(); i++) {
+            assertNotSame(recebidos.get(0), recebidos.get(i));
+        }
+        SingleFlight.Estatisticas estatisticas = singleFlight.estatisticas();
+        assertEquals(1, estatisticas.executadas());
+        assertEquals(CHAMADAS - 1, estatisticas.coalescidas());
+        assertEquals(0, estatisticas.emAndamento());
+    }
+
+    @Test
+    void erroDaLiderChegaATodasAsChamadas() throws Exception {
+        CountDownLatch liberarLider = new CountDownLatch(1);
+        DAOException erro = new DAOException("Falha na consulta");
+        SingleFlight.Chamada<String> chamada = () -> {
+            aguardar(liberarLider);
+            throw erro;
+        };
+
+        List<Future<String>> resultados = new ArrayList<>();
+        for (int i = 0; i < CHAMADAS; i++) {
+            resultados.add(executor.submit(() -> singleFlight.executar("erro", ESPERA, chamada, valor -> valor)));
+        }
+        esperarAte(() -> singleFlight.estatisticas().coalescidas() == CHAMADAS - 1);
+        liberarLider.countDown();
+
+        for (Future<String> resultado : resultados) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> resultado.get(ESPERA.toSeconds(), TimeUnit.SECONDS));
+            assertSame(erro, e.getCause());
+        }
+        assertEquals(0, singleFlight.estatisticas().emAndamento());
+
+        // A chave foi liberada: a próxima chamada executa de novo
+        assertEquals("ok", singleFlight.executar("erro", ESPERA, () -> "ok", valor -> valor));
+        assertEquals(2, singleFlight.estatisticas().executadas());
+    }
+
+    @Test
+    void runtimeExceptionDaLiderChegaComOMesmoTipo() throws Exception {
+        CountDownLatch liberarLider = new CountDownLatch(1);
+        Future<String> lider = executor.submit(() -> singleFlight.executar("runtime", ESPERA, () -> {
+            aguardar(liberarLider);
+            throw new IllegalStateException("Estado inválido");
+        }, valor -> valor));
+        esperarAte(() -> singleFlight.estatisticas().emAndamento() == 1);
+        Future<String> seguidor = executor.submit(() -> singleFlight.executar("runtime", ESPERA, () -> "nunca", valor -> valor));
+        esperarAte(() -> singleFlight.estatisticas().coalescidas() == 1);
+        liberarLider.countDown();
+
+        for (Future<String> resultado : List.of(lider, seguidor)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> resultado.get(ESPERA.toSeconds(), TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(0, singleFlight.estatisticas().emAndamento());
+    }
+
+    @Test
+    void seguidorDesisteAoExpirarEALiderContinua() throws Exception {
+        CountDownLatch liberarLider = new CountDownLatch(1);
+        Future<String> lider = executor.submit(() -> singleFlight.executar("lenta", ESPERA, () -> {
+            aguardar(liberarLider);
+            return "resultado";
+        }, valor -> valor));
+        esperarAte(() -> singleFlight.estatisticas().emAndamento() == 1);
+
+        DAOException timeout = assertThrows(DAOException.class,
+                () -> singleFlight.executar("lenta", Duration.ofMillis(50), () -> "nunca", valor -> valor));
+        assertTrue(timeout.getMessage().contains("Tempo esgotado"), timeout.getMessage());
+        assertEquals(1, singleFlight.estatisticas().timeouts());
+
+        liberarLider.countDown();
+        assertEquals("resultado", lider.get(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        assertEquals(0, singleFlight.estatisticas().emAndamento());
+    }
+
+    @Test
+    void marcaAThreadQueRecebeuResultadoDeOutra() throws Exception {
+        CountDownLatch liberarLider = new CountDownLatch(1);
+        Future<Boolean> lider = executor.submit(() -> {
+            SingleFlight.limparResultadoCompartilhado();
+            singleFlight.executar("marca", ESPERA, () -> {
+                aguardar(liberarLider);
+                return "valor";
+            }, valor -> valor);
+            return SingleFlight.recebeuResultadoCompartilhado();
+        });
+        esperarAte(() -> singleFlight.estatisticas().emAndamento() == 1);
+        Future<Boolean> seguidor = executor.submit(() -> {
+            SingleFlight.limparResultadoCompartilhado();
+            singleFlight.executar("marca", ESPERA, () -> "nunca", valor -> valor);
+            return SingleFlight.recebeuResultadoCompartilhado();
+        });
+        esperarAte(() -> singleFlight.estatisticas().coalescidas() == 1);
+        liberarLider.countDown();
+
+        assertEquals(false, lider.get(ESPERA.toSeconds(), TimeUnit.SECONDS));
+        assertEquals(true, seguidor.get(ESPERA.toSeconds(), TimeUnit.SECONDS));
+    }
+
+    @Test
+    void chavesDiferentesNaoSeCoalescem() throws Exception {
+        AtomicInteger execucoes = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            String chave = "chave-" + i;
+            assertEquals(chave, singleFlight.executar(chave, ESPERA, () -> {
+                execucoes.incrementAndGet();
+                return chave;
+            }, valor -> valor));
+        }
+        assertEquals(3, execucoes.get());
+        assertEquals(0, singleFlight.estatisticas().coalescidas());
+        assertEquals(0, singleFlight.estatisticas().emAndamento());
+    }
+
+    private static void aguardar(CountDownLatch latch) throws DAOException {
+        try {
+            if (!latch.await(ESPERA.toSeconds(), TimeUnit.SECONDS)) {
+                throw new DAOException("A líder não foi liberada pelo teste.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DAOException("Interrompido", e);
+        }
+    }
+
+    private static void esperarAte(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                throw new AssertionError("Condição não atingida em " + ESPERA);
+            }
+            Thread.sleep(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Testes do {@link ShardKey}: o bucket e a sequência voltam intactos do ID, e CPFs sequenciais se espalham entre
+ * os buckets.
+ */
+class ShardKeyTest {
+
+    @Test
+    void idGuardaSequenciaEBucket() {
+        long[] sequencias = {1, 2, 1_000, 123_456_789, (1L << (63 - ShardKey.BITS_BUCKET)) - 1};
+        int[] buckets = {0, 1, 511, ShardKey.TOTAL_BUCKETS - 1};
+        for (long sequencia : sequencias) {
+            for (int bucket : buckets) {
+                long id = ShardKey.comporId(sequencia, bucket);
+                assertTrue(id > 0, "ID negativo para " + sequencia + "/" + bucket);
+                assertEquals(bucket, ShardKey.bucketDoId(id));
+                assertEquals(sequencia, ShardKey.sequenciaDoId(id));
+                // O rebalanceamento e a contagem por bucket usam MOD(ID, TOTAL_BUCKETS) no SQL
+                assertEquals(bucket, id % ShardKey.TOTAL_BUCKETS);
+            }
+        }
+    }
+
+    @Test
+    void idsDaMesmaSequenciaSaoCrescentes() {
+        assertTrue(ShardKey.comporId(2, 0) > ShardKey.comporId(1, ShardKey.TOTAL_BUCKETS - 1));
+    }
+
+    @Test
+    void cpfsSequenciaisSeEspalhamPelosBuckets() {
+        int[] porBucket = new int[ShardKey.TOTAL_BUCKETS];
+        int cpfs = ShardKey.TOTAL_BUCKETS * 64;
+        for (long cpf = 10_000_000_000L; cpf < 10_000_000_000L + cpfs; cpf++) {
+            int bucket = ShardKey.bucketDoCpf(cpf);
+            assertTrue(bucket >= 0 && bucket < ShardKey.TOTAL_BUCKETS);
+            porBucket[bucket]++;
+        }
+        for (int bucket = 0; bucket < ShardKey.TOTAL_BUCKETS; bucket++) {
+            // Média 64 por bucket; um hash ruim deixaria buckets vazios ou com várias vezes a média
+            assertTrue(porBucket[bucket] > 16 && porBucket[bucket] < 160, "Bucket " + bucket + ": " + porBucket[bucket]);
+        }
+        assertEquals(ShardKey.bucketDoCpf(12345678909L), ShardKey.bucketDoCpf(12345678909L));
+    }
+}
\ No newline at end of file
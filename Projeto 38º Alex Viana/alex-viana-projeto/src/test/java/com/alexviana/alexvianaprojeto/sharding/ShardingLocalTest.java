@@ -0,0 +1,323 @@
+package com.alexviana.alexvianaprojeto.sharding;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.domain.EstatisticaRegiao;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.repository.EstatisticaRegiaoRepository;
+import com.alexviana.alexvianaprojeto.service.IClienteService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Sharding com os 4 shards H2 do perfil "sharding-local" (com nomes próprios, para não dividir os bancos em memória
+ * com outros testes): roteamento pelo {@link ShardMap}, scatter-gather de listagem, filtro e contagem por região,
+ * e movimento de buckets pelo {@link ShardRebalancer}, incluindo a espera pelas escritas em andamento e a remoção
+ * na origem que falha e fica pendente. Depois de cada movimento, as linhas e a contagem por região de cada shard
+ * continuam coerentes e as consultas em todos os shards não repetem clientes.
+ */
+@SpringBootTest(properties = {
+        "app.sharding.shards[0].url=jdbc:h2:mem:sharding-teste0;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/shard-schema.sql'",
+        "app.sharding.shards[1].url=jdbc:h2:mem:sharding-teste1;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/shard-schema.sql'",
+        "app.sharding.shards[2].url=jdbc:h2:mem:sharding-teste2;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/shard-schema.sql'",
+        "app.sharding.shards[3].url=jdbc:h2:mem:sharding-teste3;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/shard-schema.sql'",
+        "spring.jpa.show-sql=false",
+        "app.admission.enabled=false", "app.jfr.enabled=false", "app.faces.load-on-startup=-1"})
+@ActiveProfiles("sharding-local")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardingLocalTest {
+
+    private static final Duration ESPERA = Duration.ofSeconds(10);
+    private static final String[][] REGIOES = {{"SP", "São Paulo"}, {"RJ", "Rio de Janeiro"}, {"MG", "Belo Horizonte"}};
+
+    @Autowired
+    private IClienteService clienteService;
+
+    @Autowired
+    private ShardMap shardMap;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    // Todos os clientes cadastrados pelo teste, por ID
+    private final Map<Long, Cliente> cadastrados = new HashMap<>();
+    private long proximoCpf = 30_000_000_000L;
+    private final Set<Integer> bucketsUsados = new HashSet<>();
+
+    @BeforeAll
+    void cadastrarClientes() throws DAOException {
+        for (int i = 0; i < 200; i++) {
+            cadastrar(proximoCpf++, i % REGIOES.length);
+        }
+        bucketsUsados.addAll(cadastrados.keySet().stream().map(ShardKey::bucketDoId).toList());
+    }
+
+    @AfterAll
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private Cliente cadastrar(long cpf, int regiao) throws DAOException {
+        Cliente cliente = clienteService.cadastrar(Cliente.builder()
+                .nome("Fulano " + cpf)
+                .cpf(cpf)
+                .estado(REGIOES[regiao][0])
+                .cidade(REGIOES[regiao][1])
+                .build());
+        cadastrados.put(cliente.getId(), cliente);
+        return cliente;
+    }
+
+    // Um bucket ainda sem clientes deste teste, com a quantidade pedida de clientes cadastrados nele
+    private int bucketComClientes(int quantidade) throws DAOException {
+        int bucket = ShardKey.bucketDoCpf(proximoCpf);
+        while (!bucketsUsados.add(bucket)) {
+            bucket = ShardKey.bucketDoCpf(++proximoCpf);
+        }
+        for (int i = 0; i < quantidade; i++) {
+            cadastrar(cpfDoBucket(bucket), i % REGIOES.length);
+        }
+        return bucket;
+    }
+
+    private long cpfDoBucket(int bucket) {
+        while (ShardKey.bucketDoCpf(proximoCpf) != bucket) {
+            proximoCpf++;
+        }
+        return proximoCpf++;
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(dataSource.getShard(shard));
+    }
+
+    private int linhasDoBucket(int shard, int bucket) {
+        return shard(shard).queryForObject("SELECT COUNT(*) FROM TB_CLIENTE WHERE MOD(ID, ?) = ?",
+                Integer.class, ShardKey.TOTAL_BUCKETS, bucket);
+    }
+
+    private Map<EstatisticaRegiao.Regiao, Long> esperadoPorRegiao() {
+        Map<EstatisticaRegiao.Regiao, Long> esperado = new HashMap<>();
+        for (Cliente cliente : cadastrados.values()) {
+            esperado.merge(EstatisticaRegiao.Regiao.de(cliente.getEstado(), cliente.getCidade()), 1L, Long::sum);
+        }
+        return esperado;
+    }
+
+    private Map<EstatisticaRegiao.Regiao, Long> contadoPorRegiao() throws DAOException {
+        Map<EstatisticaRegiao.Regiao, Long> contado = new HashMap<>();
+        for (EstatisticaRegiao regiao : clienteService.contarPorRegiao()) {
+            contado.put(new EstatisticaRegiao.Regiao(regiao.getEstado(), regiao.getCidade()), regiao.getQuantidade());
+        }
+        return contado;
+    }
+
+    private static Set<Long> ids(Collection<Cliente> clientes) {
+        Set<Long> ids = new HashSet<>();
+        for (Cliente cliente : clientes) {
+            assertTrue(ids.add(cliente.getId()), "Cliente repetido: " + cliente.getId());
+        }
+        return ids;
+    }
+
+    // A contagem por região do shard é a mesma que a contagem das linhas do shard
+    private void assertContagemCoerente(int shard) {
+        Map<String, Long> linhas = new HashMap<>();
+        shard(shard).query(EstatisticaRegiaoRepository.SQL_CONTAGEM_CLIENTES, rs -> {
+            linhas.put(rs.getString("ESTADO") + "|" + rs.getString("CIDADE"), rs.getLong("QUANTIDADE"));
+        });
+        Map<String, Long> registrado = new HashMap<>();
+        shard(shard).query("SELECT ESTADO, CIDADE, QUANTIDADE FROM TB_ESTATISTICA_REGIAO WHERE QUANTIDADE <> 0", rs -> {
+            registrado.put(rs.getString("ESTADO") + "|" + rs.getString("CIDADE"), rs.getLong("QUANTIDADE"));
+        });
+        assertEquals(linhas, registrado, "Contagem por região do shard " + shard);
+    }
+
+    private void assertConsultasSemRepeticao() throws DAOException {
+        assertEquals(cadastrados.keySet(), ids(clienteService.buscarTodos()));
+        assertEquals(cadastrados.keySet(), ids(clienteService.filtrarClientes("fulano")));
+        assertEquals(esperadoPorRegiao(), contadoPorRegiao());
+    }
+
+    @Test
+    void cadaClienteFicaNoShardDoBucketDoCpf() throws DAOException {
+        for (Cliente cliente : cadastrados.values()) {
+            int bucket = ShardKey.bucketDoId(cliente.getId());
+            assertEquals(ShardKey.bucketDoCpf(cliente.getCpf()), bucket);
+            int dono = shardMap.shardDoBucket(bucket);
+            for (int shard = 0; shard < shardMap.getQuantidadeShards(); shard++) {
+                int esperado = shard == dono ? 1 : 0;
+                assertEquals(esperado, shard(shard).queryForObject("SELECT COUNT(*) FROM TB_CLIENTE WHERE ID = ?",
+                        Integer.class, cliente.getId()), "Cliente " + cliente.getId() + " no shard " + shard);
+            }
+            assertEquals(cliente.getCpf(), clienteService.consultar(cliente.getId()).orElseThrow().getCpf());
+            assertEquals(cliente.getId(), clienteService.buscarPorCPF(cliente.getCpf()).orElseThrow().getId());
+        }
+        // A duplicidade de CPF continua sendo verificada no shard do CPF
+        Cliente existente = cadastrados.values().iterator().next();
+        assertThrows(DAOException.class, () -> cadastrar(existente.getCpf(), 0));
+    }
+
+    @Test
+    void scatterGatherJuntaOsShardsSemRepetir() throws DAOException {
+        Collection<Cliente> todos = clienteService.buscarTodos();
+        assertEquals(cadastrados.keySet(), ids(todos));
+        Set<Integer> shards = new HashSet<>();
+        for (Cliente cliente : todos) {
+            shards.add(shardMap.shardDoBucket(ShardKey.bucketDoId(cliente.getId())));
+        }
+        assertEquals(shardMap.getQuantidadeShards(), shards.size(), "Todos os shards deveriam ter clientes");
+
+        Cliente algum = cadastrados.values().iterator().next();
+        List<Cliente> filtrados = clienteService.filtrarClientes(algum.getNome());
+        assertEquals(1, filtrados.size());
+        assertEquals(algum.getId(), filtrados.get(0).getId());
+
+        // A contagem soma as regiões de todos os shards, ordenada por estado e cidade
+        List<EstatisticaRegiao> regioes = clienteService.contarPorRegiao();
+        assertEquals(esperadoPorRegiao(), contadoPorRegiao());
+        for (int i = 1; i < regioes.size(); i++) {
+            EstatisticaRegiao anterior = regioes.get(i - 1);
+            EstatisticaRegiao atual = regioes.get(i);
+            int ordem = anterior.getEstado().compareTo(atual.getEstado());
+            assertTrue(ordem < 0 || (ordem == 0 && anterior.getCidade().compareTo(atual.getCidade()) < 0), regioes.toString());
+        }
+    }
+
+    @Test
+    void moverBucketMantemIdsLinhasEContagens() throws DAOException {
+        int bucket = bucketComClientes(6);
+        int origem = shardMap.shardDoBucket(bucket);
+        int destino = (origem + 1) % shardMap.getQuantidadeShards();
+
+        ShardRebalancer.MovimentoBucket movimento = shardRebalancer.moverBucket(bucket, destino);
+
+        assertEquals(new ShardRebalancer.MovimentoBucket(bucket, origem, destino, 6), movimento);
+        assertEquals(destino, shardMap.shardDoBucket(bucket));
+        assertEquals(0, linhasDoBucket(origem, bucket));
+        assertEquals(6, linhasDoBucket(destino, bucket));
+        assertTrue(shardMap.remocoesPendentes().isEmpty());
+        assertContagemCoerente(origem);
+        assertContagemCoerente(destino);
+        assertConsultasSemRepeticao();
+        for (Cliente cliente : cadastrados.values()) {
+            if (ShardKey.bucketDoId(cliente.getId()) == bucket) {
+                assertEquals(cliente.getCpf(), clienteService.consultar(cliente.getId()).orElseThrow().getCpf());
+            }
+        }
+
+        // Novos cadastros do bucket vão para o destino, com IDs que não colidem com os recebidos
+        Cliente novo = cadastrar(cpfDoBucket(bucket), 0);
+        assertEquals(bucket, ShardKey.bucketDoId(novo.getId()));
+        assertEquals(7, linhasDoBucket(destino, bucket));
+        assertContagemCoerente(destino);
+        assertConsultasSemRepeticao();
+    }
+
+    @Test
+    void movimentoEsperaEscritaEmAndamentoERecusaNovas() throws Exception {
+        int bucket = bucketComClientes(3);
+        int origem = shardMap.shardDoBucket(bucket);
+        int destino = (origem + 2) % shardMap.getQuantidadeShards();
+
+        // Escrita em andamento no bucket: o movimento espera ela terminar
+        assertTrue(shardMap.iniciarEscrita(bucket));
+        Future<ShardRebalancer.MovimentoBucket> movimento;
+        try {
+            movimento = executor.submit(() -> shardRebalancer.moverBucket(bucket, destino));
+            esperarAte(() -> shardMap.emMigracao(bucket));
+            Thread.sleep(100);
+            assertFalse(movimento.isDone(), "O movimento não esperou a escrita em andamento");
+            DAOException recusada = assertThrows(DAOException.class, () -> cadastrar(cpfDoBucket(bucket), 0));
+            assertTrue(recusada.getMessage().contains("sendo movidos"), recusada.getMessage());
+        } finally {
+            shardMap.terminarEscrita(bucket);
+        }
+
+        assertEquals(3, movimento.get(ESPERA.toSeconds(), TimeUnit.SECONDS).registros());
+        assertFalse(shardMap.emMigracao(bucket));
+        assertEquals(3, linhasDoBucket(destino, bucket));
+        cadastrar(cpfDoBucket(bucket), 1);
+        assertEquals(4, linhasDoBucket(destino, bucket));
+        assertContagemCoerente(origem);
+        assertContagemCoerente(destino);
+        assertConsultasSemRepeticao();
+    }
+
+    @Test
+    void remocaoQueFalhaNaOrigemFicaPendenteSemRepetirClientes() throws DAOException {
+        int bucket = bucketComClientes(4);
+        int origem = shardMap.shardDoBucket(bucket);
+        int destino = (origem + 3) % shardMap.getQuantidadeShards();
+        long bloqueado = cadastrados.keySet().stream().filter(id -> ShardKey.bucketDoId(id) == bucket).findFirst().orElseThrow();
+
+        // Uma referência ao cliente na origem faz o DELETE da origem falhar depois da troca do dono do bucket
+        shard(origem).execute("CREATE TABLE TB_TRAVA_REMOCAO (CLIENTE_ID BIGINT REFERENCES TB_CLIENTE (ID))");
+        try {
+            shard(origem).update("INSERT INTO TB_TRAVA_REMOCAO (CLIENTE_ID) VALUES (?)", bloqueado);
+            DAOException erro = assertThrows(DAOException.class, () -> shardRebalancer.moverBucket(bucket, destino));
+            assertTrue(erro.getMessage().contains("pendente"), erro.getMessage());
+
+            // O bucket já é do destino; as linhas ficaram nos dois shards, mas as consultas não as repetem
+            assertEquals(destino, shardMap.shardDoBucket(bucket));
+            assertEquals(4, linhasDoBucket(origem, bucket));
+            assertEquals(4, linhasDoBucket(destino, bucket));
+            assertEquals(Map.of(origem, Set.of(bucket)), shardMap.remocoesPendentes());
+            assertEquals(Set.of(bucket), shardMap.bucketsAlheios(origem));
+            assertConsultasSemRepeticao();
+
+            // Enquanto a causa não é resolvida, a remoção continua pendente
+            assertThrows(DAOException.class, () -> shardRebalancer.concluirRemocoesPendentes());
+            assertEquals(Map.of(origem, Set.of(bucket)), shardMap.remocoesPendentes());
+        } finally {
+            shard(origem).execute("DROP TABLE TB_TRAVA_REMOCAO");
+        }
+
+        shardRebalancer.concluirRemocoesPendentes();
+        assertEquals(0, linhasDoBucket(origem, bucket));
+        assertEquals(4, linhasDoBucket(destino, bucket));
+        assertTrue(shardMap.remocoesPendentes().isEmpty());
+        assertTrue(shard(0).queryForList("SELECT * FROM TB_SHARD_REMOCAO_PENDENTE").isEmpty());
+        assertContagemCoerente(origem);
+        assertContagemCoerente(destino);
+        assertConsultasSemRepeticao();
+    }
+
+    private static void esperarAte(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                throw new AssertionError("Condição não atingida em " + ESPERA);
+            }
+            Thread.sleep(1);
+        }
+    }
+}
\ No newline at end of file
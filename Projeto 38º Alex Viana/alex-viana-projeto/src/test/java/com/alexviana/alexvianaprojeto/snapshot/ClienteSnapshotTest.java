@@ -0,0 +1,132 @@
+package com.alexviana.alexvianaprojeto.snapshot;
+
+import com.alexviana.alexvianaprojeto.domain.Cliente;
+import com.alexviana.alexvianaprojeto.exceptions.DAOException;
+import com.alexviana.alexvianaprojeto.repository.ClienteRepository;
+import com.alexviana.alexvianaprojeto.service.IClienteService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Snapshot de clientes sobre um H2 em memória: a carga completa em lotes pela paginação por chave
+ * ({@code findByIdGreaterThanOrderByIdAsc}), a atualização após cada commit do {@code ClienteService}
+ * e o filtro por nome, que precisa devolver os mesmos clientes que a consulta JPA do {@link ClienteRepository}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cliente-snapshot;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "app.snapshot.enabled=true",
+        "app.admission.enabled=false", "app.jfr.enabled=false", "app.faces.load-on-startup=-1"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClienteSnapshotTest {
+
+    // Mais de dois lotes da carga (1000 clientes por lote)
+    private static final int CLIENTES = 2_345;
+    private static final String[] NOMES = {"Ana Souza", "ANA PAULA", "Mariana", "João da Silva", "JOÃO", "Joao_Pedro",
+            "50% Tecidos", "Barra\\Invertida", "Zé", "Cláudia"};
+
+    @Autowired
+    private ClienteSnapshot clienteSnapshot;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private IClienteService clienteService;
+
+    private long proximoCpf = 40_000_000_000L;
+
+    @BeforeAll
+    void gravarClientesSemPassarPeloSnapshot() {
+        // Gravados direto no repositório: só a carga completa os leva ao snapshot
+        List<Cliente> clientes = new ArrayList<>(CLIENTES);
+        for (int i = 0; i < CLIENTES; i++) {
+            clientes.add(Cliente.builder()
+                    .nome(NOMES[i % NOMES.length] + " " + i)
+                    .cpf(proximoCpf++)
+                    .email(i % 3 == 0 ? null : "cliente" + i + "@exemplo.com")
+                    .tel(i % 4 == 0 ? null : 11_900_000_000L + i)
+                    .end("Rua " + i)
+                    .numero(i % 5 == 0 ? null : i)
+                    .cidade(i % 2 == 0 ? "São Paulo" : "Campinas")
+                    .estado("SP")
+                    .build());
+        }
+        clienteRepository.saveAll(clientes);
+        assertTrue(clienteSnapshot.recarregar());
+    }
+
+    private static Set<Long> ids(Collection<Cliente> clientes) {
+        Set<Long> ids = new TreeSet<>();
+        clientes.forEach(cliente -> ids.add(cliente.getId()));
+        return ids;
+    }
+
+    @Test
+    void cargaCompletaTrazTodosOsClientesComTodosOsCampos() {
+        assertTrue(clienteSnapshot.isCarregado());
+        List<Cliente> noBanco = clienteRepository.findAll();
+        assertEquals(noBanco.size(), clienteSnapshot.estatisticas().linhas());
+        assertEquals(ids(noBanco), ids(clienteSnapshot.buscarTodos()));
+        for (Cliente cliente : noBanco) {
+            assertEquals(cliente, clienteSnapshot.consultar(cliente.getId()).orElseThrow());
+            assertEquals(cliente.getId(), clienteSnapshot.buscarPorCpf(cliente.getCpf()).orElseThrow().getId());
+        }
+    }
+
+    @Test
+    void commitsDoServicoAtualizamOSnapshot() throws DAOException {
+        Cliente cadastrado = clienteService.cadastrar(Cliente.builder()
+                .nome("Wilson Incremental").cpf(proximoCpf++).cidade("Santos").estado("SP").build());
+        assertEquals(cadastrado, clienteSnapshot.consultar(cadastrado.getId()).orElseThrow());
+        assertEquals(cadastrado.getId(), clienteSnapshot.buscarPorCpf(cadastrado.getCpf()).orElseThrow().getId());
+        assertEquals(Set.of(cadastrado.getId()), ids(clienteSnapshot.filtrarPorNome("wilson incr")));
+
+        Cliente alterado = cadastrado.toBuilder().nome("Wesley Alterado").cidade("Guarujá").build();
+        clienteService.alterar(alterado);
+        assertEquals(alterado, clienteSnapshot.consultar(cadastrado.getId()).orElseThrow());
+        assertTrue(clienteSnapshot.filtrarPorNome("wilson incr").isEmpty());
+        assertEquals(Set.of(cadastrado.getId()), ids(clienteSnapshot.filtrarPorNome("WESLEY")));
+
+        clienteService.excluir(alterado);
+        assertFalse(clienteSnapshot.consultar(cadastrado.getId()).isPresent());
+        assertFalse(clienteSnapshot.buscarPorCpf(cadastrado.getCpf()).isPresent());
+        assertTrue(clienteSnapshot.filtrarPorNome("wesley").isEmpty());
+
+        // Uma nova carga enxerga o mesmo que as atualizações incrementais
+        Set<Long> antes = ids(clienteSnapshot.buscarTodos());
+        assertTrue(clienteSnapshot.recarregar());
+        assertEquals(antes, ids(clienteSnapshot.buscarTodos()));
+        assertEquals(ids(clienteRepository.findAll()), antes);
+    }
+
+    @Test
+    void filtroDoSnapshotDevolveOMesmoQueAConsultaJpa() {
+        String[] buscas = {"ana", "ANA", "ão", "JOÃO", "joao", "jo_o", "o_p", "a%a", "50\\%", "50%", "%", "_", "",
+                "\\\\", "zé", "ZÉ", "cláudia 1", "sem correspondência", " 12"};
+        for (String busca : buscas) {
+            assertEquals(ids(clienteRepository.filtrarClientes(busca)), ids(clienteSnapshot.filtrarPorNome(busca)),
+                    "Busca: " + busca);
+        }
+        // O serviço responde pelo snapshot com o mesmo resultado
+        assertEquals(ids(clienteRepository.filtrarClientes("mariana")), ids(clienteService.filtrarClientes("mariana")));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.alexviana.alexvianaprojeto.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Alex Viana
+ * Confere o tamanho da arena da {@link ColunaTexto} para tabelas grandes (sem estouro de {@code int}) e a leitura
+ * dos valores gravados depois que ela cresce.
+ */
+class ColunaTextoTest {
+
+    @Test
+    void reservaInicialNaoEstouraComMuitasLinhas() {
+        assertEquals(16, ColunaTexto.reservaInicial(0, 24));
+        assertEquals(24_000, ColunaTexto.reservaInicial(1_000, 24));
+        // 90 milhões * 24 passa de Integer.MAX_VALUE; 180 milhões * 24 daria um int positivo pequeno
+        assertEquals(ColunaTexto.RESERVA_MAXIMA_ARENA, ColunaTexto.reservaInicial(90_000_000, 24));
+        assertEquals(ColunaTexto.RESERVA_MAXIMA_ARENA, ColunaTexto.reservaInicial(180_000_000, 24));
+        assertEquals(ColunaTexto.RESERVA_MAXIMA_ARENA, ColunaTexto.reservaInicial(Integer.MAX_VALUE, 24));
+    }
+
+    @Test
+    void crescimentoFicaNoLimiteDoArray() {
+        assertEquals(64, ColunaTexto.novaCapacidade(32, 33));
+        assertEquals(1_000, ColunaTexto.novaCapacidade(32, 1_000));
+        assertEquals(ColunaTexto.TAMANHO_MAXIMO_ARENA, ColunaTexto.novaCapacidade(1_500_000_000, 1_500_000_001L));
+        assertThrows(IllegalStateException.class,
+                () -> ColunaTexto.novaCapacidade(ColunaTexto.TAMANHO_MAXIMO_ARENA, ColunaTexto.TAMANHO_MAXIMO_ARENA + 1L));
+    }
+
+    @Test
+    void valoresContinuamLegiveisDepoisDeCrescer() {
+        ColunaTexto coluna = new ColunaTexto(1, 1);
+        for (int linha = 0; linha < 100; linha++) {
+            coluna.definir(linha, linha % 10 == 0 ? null : "Cliente " + linha + " ção");
+        }
+        for (int linha = 0; linha < 100; linha++) {
+            if (linha % 10 == 0) {
+                assertNull(coluna.ler(linha));
+            } else {
+                assertEquals("Cliente " + linha + " ção", coluna.ler(linha));
+            }
+        }
+    }
+}
\ No newline at end of file
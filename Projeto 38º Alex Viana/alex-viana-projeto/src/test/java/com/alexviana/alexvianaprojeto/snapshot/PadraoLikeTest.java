@@ -0,0 +1,75 @@
+package com.alexviana.alexvianaprojeto.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Alex Viana
+ * Confere que o filtro do snapshot segue a regra do {@code LIKE '%query%'} usado pelo {@code ClienteRepository}.
+ */
+class PadraoLikeTest {
+
+    private static boolean corresponde(String trecho, String valor) {
+        PadraoLike padrao = PadraoLike.contendo(trecho);
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        if (padrao.literal() != null) {
+            return new String(bytes, StandardCharsets.UTF_8).contains(new String(padrao.literal(), StandardCharsets.UTF_8));
+        }
+        return padrao.corresponde(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void semCuringasUsaBuscaPorSubstring() {
+        assertArrayEquals("ana".getBytes(StandardCharsets.UTF_8), PadraoLike.contendo("ana").literal());
+        assertArrayEquals("50%".getBytes(StandardCharsets.UTF_8), PadraoLike.contendo("50\\%").literal());
+    }
+
+    @Test
+    void trechoVazioCorrespondeAQualquerValor() {
+        assertArrayEquals(new byte[0], PadraoLike.contendo("").literal());
+        assertTrue(corresponde("", "qualquer"));
+        assertTrue(corresponde("", ""));
+    }
+
+    @Test
+    void percentualCorrespondeAQualquerSequencia() {
+        assertNull(PadraoLike.contendo("a%a").literal());
+        assertTrue(corresponde("a%a", "mariana"));
+        assertTrue(corresponde("jo%silva", "joão da silva"));
+        assertTrue(corresponde("%", "qualquer"));
+        assertTrue(corresponde("%", ""));
+        assertFalse(corresponde("silva%jo", "joão da silva"));
+    }
+
+    @Test
+    void sublinhadoCorrespondeAExatamenteUmCaractere() {
+        assertTrue(corresponde("jo_o", "joão"));
+        assertTrue(corresponde("jo_o", "sr. joao"));
+        assertFalse(corresponde("jo_o", "joo"));
+        assertTrue(corresponde("ma__a", "maria"));
+        assertFalse(corresponde("ma___a", "maria"));
+        assertTrue(corresponde("_", "ç"));
+        assertFalse(corresponde("_", ""));
+    }
+
+    @Test
+    void barraInvertidaEscapaCuringas() {
+        assertTrue(corresponde("50\\%", "desconto 50%"));
+        assertFalse(corresponde("50\\%", "desconto 500"));
+        assertTrue(corresponde("a\\_b", "xa_by"));
+        assertFalse(corresponde("a\\_b", "axb"));
+    }
+
+    @Test
+    void retrocedeAteOUltimoPercentual() {
+        assertTrue(corresponde("ab%abc", "ab ab abc"));
+        assertTrue(corresponde("a%b_c", "a xb bzc"));
+        assertFalse(corresponde("a%b_c", "a xb bc"));
+    }
+}
\ No newline at end of file